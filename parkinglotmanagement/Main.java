@@ -1,8 +1,28 @@
 import gui.MainFrame;
+import server.GateServer;
+import service.AppContext;
 import javax.swing.SwingUtilities;
+import java.net.InetAddress;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // headless gate server: java Main --server [port] [bindAddress]; loopback only unless an address is given
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+            InetAddress bind = args.length > 2 ? InetAddress.getByName(args[2]) : InetAddress.getLoopbackAddress();
+            GateServer server = new GateServer(new AppContext(), bind, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (Exception ignored) {
+                    // JVM is going down anyway
+                }
+            }));
+            server.start();
+            System.out.println("Gate server listening on port " + server.getPort());
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
             new MainFrame();
         });
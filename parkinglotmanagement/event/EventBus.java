@@ -0,0 +1,238 @@
+package event;
+
+import model.Fine;
+import model.Payment;
+import model.Ticket;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lock-free ring buffer carrying ParkingEvents from the gates to subscribers, Disruptor style.
+ *
+ * Publishers claim sequence numbers with one atomic add, fill the preallocated slot and
+ * mark it published; nothing is allocated and no lock is taken. Each subscriber has its own
+ * thread and its own sequence, reads slots in order and never blocks a publisher.
+ * A publisher only waits when it would overwrite a slot the slowest subscriber has not read yet,
+ * i.e. when a subscriber has fallen a whole ring behind.
+ *
+ * Subscribers can come and go at any time; a new one sees events published after it joined.
+ * A handler that throws has the event logged and skipped; one that throws an Error is dropped,
+ * so a dead subscriber never holds the ring up.
+ */
+public class EventBus implements Closeable {
+
+    /** Takes publishes and drops them; for services that were never given a bus. */
+    public static final EventBus NONE = new EventBus(1, false);
+
+    private static final Logger LOG = Logger.getLogger(EventBus.class.getName());
+
+    private final ParkingEvent[] slots;
+    private final int mask;
+    private final int shift;
+    // round number (sequence / size) last published into each slot; -1 = never
+    private final AtomicIntegerArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong gatingCache = new AtomicLong(-1);
+    private final boolean acceptsSubscribers;
+
+    private volatile Subscriber[] subscribers = new Subscriber[0];
+
+    public EventBus(int size) {
+        this(size, true);
+    }
+
+    private EventBus(int size, boolean acceptsSubscribers) {
+        if (Integer.bitCount(size) != 1) throw new IllegalArgumentException("Ring size must be a power of two: " + size);
+        this.slots = new ParkingEvent[size];
+        for (int i = 0; i < size; i++) slots[i] = new ParkingEvent();
+        this.mask = size - 1;
+        this.shift = Integer.numberOfTrailingZeros(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) published.set(i, -1);
+        this.acceptsSubscribers = acceptsSubscribers;
+    }
+
+    // --- publishing ---
+
+    public void vehicleParked(Ticket ticket) {
+        publish(ParkingEvent.Type.VEHICLE_PARKED, ticket, null, null);
+    }
+
+    public void vehicleExited(Ticket ticket) {
+        publish(ParkingEvent.Type.VEHICLE_EXITED, ticket, null, null);
+    }
+
+    public void fineIssued(Fine fine) {
+        publish(ParkingEvent.Type.FINE_ISSUED, null, fine, null);
+    }
+
+    public void paymentRecorded(Payment payment, Fine paidFine) {
+        publish(ParkingEvent.Type.PAYMENT_RECORDED, null, paidFine, payment);
+    }
+
+    /** Batch form: claims the whole range with one atomic add. */
+    public void vehiclesParked(List<Ticket> tickets) {
+        publishAll(ParkingEvent.Type.VEHICLE_PARKED, tickets);
+    }
+
+    public void vehiclesExited(List<Ticket> tickets) {
+        publishAll(ParkingEvent.Type.VEHICLE_EXITED, tickets);
+    }
+
+    private void publish(ParkingEvent.Type type, Ticket ticket, Fine fine, Payment payment) {
+        if (subscribers.length == 0) return; // nobody listening, skip the ring entirely
+        long seq = claim(1);
+        slots[(int) seq & mask].set(type, ticket, fine, payment);
+        published.setRelease((int) seq & mask, (int) (seq >>> shift));
+    }
+
+    private void publishAll(ParkingEvent.Type type, List<Ticket> tickets) {
+        if (subscribers.length == 0 || tickets.isEmpty()) return;
+        // claim at most a ring at a time, or we would wait on ourselves
+        for (int from = 0; from < tickets.size(); from += slots.length) {
+            int n = Math.min(slots.length, tickets.size() - from);
+            long first = claim(n);
+            for (int i = 0; i < n; i++) {
+                slots[(int) (first + i) & mask].set(type, tickets.get(from + i), null, null);
+            }
+            for (int i = 0; i < n; i++) {
+                long seq = first + i;
+                published.setRelease((int) seq & mask, (int) (seq >>> shift));
+            }
+        }
+    }
+
+    // returns the first of n claimed sequences, once all n slots are free to overwrite
+    private long claim(int n) {
+        long last = claimed.addAndGet(n);
+        long wrapPoint = last - slots.length;
+        if (wrapPoint > gatingCache.get()) {
+            long min;
+            while (wrapPoint > (min = minSequence(last))) {
+                LockSupport.parkNanos(1_000); // a subscriber is a full ring behind
+            }
+            gatingCache.set(min);
+        }
+        return last - n + 1;
+    }
+
+    private long minSequence(long fallback) {
+        long min = fallback;
+        for (Subscriber s : subscribers) min = Math.min(min, s.sequence.get());
+        return min;
+    }
+
+    private boolean isPublished(long seq) {
+        return published.getAcquire((int) seq & mask) == (int) (seq >>> shift);
+    }
+
+    // --- subscribing ---
+
+    /** Starts a daemon thread named "event-&lt;name&gt;" that feeds handler every event from now on. */
+    public synchronized Subscription subscribe(String name, EventHandler handler) {
+        if (!acceptsSubscribers) throw new IllegalStateException("EventBus.NONE takes no subscribers");
+        Subscriber s = new Subscriber(name, handler, claimed.get());
+        Subscriber[] grown = Arrays.copyOf(subscribers, subscribers.length + 1);
+        grown[grown.length - 1] = s;
+        subscribers = grown;
+        s.thread.start();
+        return s;
+    }
+
+    private synchronized void remove(Subscriber s) {
+        subscribers = Arrays.stream(subscribers).filter(x -> x != s).toArray(Subscriber[]::new);
+    }
+
+    /** Stops every subscriber once it has handled everything published so far. */
+    @Override
+    public void close() {
+        for (Subscriber s : subscribers) s.close();
+    }
+
+    public interface Subscription extends Closeable {
+        long getSequence(); // last event handled
+        @Override
+        void close();
+    }
+
+    private final class Subscriber implements Subscription, Runnable {
+        private final EventHandler handler;
+        private final AtomicLong sequence;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        Subscriber(String name, EventHandler handler, long startAfter) {
+            this.handler = handler;
+            this.sequence = new AtomicLong(startAfter);
+            this.thread = new Thread(this, "event-" + name);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                consume();
+            } catch (Throwable e) {
+                // the thread is going away: drop out of minSequence() so publishers stop waiting on it
+                LOG.log(Level.SEVERE, thread.getName() + ": subscriber stopped", e);
+            } finally {
+                running = false;
+                remove(this);
+            }
+        }
+
+        private void consume() {
+            long next = sequence.get() + 1;
+            int idle = 0;
+            while (running || (next <= claimed.get() && isPublished(next))) {
+                if (!isPublished(next)) {
+                    idle = idle(idle);
+                    continue;
+                }
+                idle = 0;
+                long last = next;
+                while (last - next < mask && isPublished(last + 1)) last++;
+                for (long seq = next; seq <= last; seq++) {
+                    try {
+                        handler.onEvent(slots[(int) seq & mask], seq, seq == last);
+                    } catch (RuntimeException e) {
+                        // one broken event must not stall the ring for everyone else
+                        LOG.log(Level.WARNING, thread.getName() + ": event " + seq + " failed", e);
+                    }
+                }
+                sequence.setRelease(last);
+                next = last + 1;
+            }
+        }
+
+        // spin briefly, then yield, then sleep: an idle subscriber costs publishers nothing
+        private int idle(int idle) {
+            if (idle < 100) Thread.onSpinWait();
+            else if (idle < 200) Thread.yield();
+            else LockSupport.parkNanos(100_000);
+            return idle + 1;
+        }
+
+        @Override
+        public long getSequence() {
+            return sequence.get();
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            try {
+                thread.join(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
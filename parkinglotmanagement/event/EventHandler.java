@@ -0,0 +1,10 @@
+package event;
+
+/**
+ * An EventBus subscriber. Each one runs on its own thread and sees every event in publish order.
+ */
+public interface EventHandler {
+
+    // endOfBatch is true for the last event currently available, a good point to flush or repaint
+    void onEvent(ParkingEvent event, long sequence, boolean endOfBatch);
+}
\ No newline at end of file
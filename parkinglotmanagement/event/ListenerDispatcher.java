@@ -0,0 +1,33 @@
+package event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One EventBus subscriber that fans events out to any number of ParkingListeners,
+ * so short-lived listeners (an open dialog, a live table) don't each need their own thread.
+ */
+public class ListenerDispatcher implements EventHandler {
+
+    private final List<ParkingListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void add(ParkingListener listener) {
+        listeners.add(listener);
+    }
+
+    public void remove(ParkingListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onEvent(ParkingEvent event, long sequence, boolean endOfBatch) {
+        for (ParkingListener l : listeners) {
+            switch (event.getType()) {
+                case VEHICLE_PARKED:   l.vehicleParked(event.getTicket()); break;
+                case VEHICLE_EXITED:   l.vehicleExited(event.getTicket()); break;
+                case FINE_ISSUED:      l.fineIssued(event.getFine()); break;
+                case PAYMENT_RECORDED: l.paymentRecorded(event.getPayment()); break;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package event;
+
+import model.Fine;
+import model.Payment;
+import model.Ticket;
+
+/**
+ * One slot of the EventBus ring. Slots are allocated once and overwritten for every
+ * event, so a handler must copy out anything it wants to keep before onEvent returns.
+ *
+ *   VEHICLE_PARKED    ticket
+ *   VEHICLE_EXITED    ticket (closed, exit time set)
+ *   FINE_ISSUED       fine
+ *   PAYMENT_RECORDED  payment, fine = the fine it paid (nullable)
+ */
+public final class ParkingEvent {
+
+    public enum Type { VEHICLE_PARKED, VEHICLE_EXITED, FINE_ISSUED, PAYMENT_RECORDED }
+
+    private Type type;
+    private Ticket ticket;
+    private Fine fine;
+    private Payment payment;
+
+    void set(Type type, Ticket ticket, Fine fine, Payment payment) {
+        this.type = type;
+        this.ticket = ticket;
+        this.fine = fine;
+        this.payment = payment;
+    }
+
+    public Type getType() { return type; }
+    public Ticket getTicket() { return ticket; }
+    public Fine getFine() { return fine; }
+    public Payment getPayment() { return payment; }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package event;
+
+import model.Fine;
+import model.Payment;
+import model.Ticket;
+
+/**
+ * Convenience callbacks for code that only cares about a few event types.
+ * Registered with a ListenerDispatcher; called on that dispatcher's event-bus thread,
+ * so implementations must return quickly and not throw.
+ */
+public interface ParkingListener {
+
+    default void vehicleParked(Ticket ticket) { }
+
+    default void vehicleExited(Ticket ticket) { }
+
+    default void fineIssued(Fine fine) { }
+
+    default void paymentRecorded(Payment payment) { }
+}
\ No newline at end of file
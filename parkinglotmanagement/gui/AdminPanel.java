@@ -1,46 +1,65 @@
 package gui;
 
+import event.ListenerDispatcher;
+import event.ParkingListener;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
 import model.Fine;
+import model.SpotType;
+import model.Ticket;
 import service.AppContext;
 import service.ParkingService;
 import service.ReportService;
+import strategy.AllocationStrategy;
+import strategy.BalancedFloorsAllocation;
+import strategy.BestFitAllocation;
+import strategy.FirstFreeAllocation;
 import strategy.FixedFineStrategy;
 import strategy.HourlyFineStrategy;
+import strategy.NearestExitAllocation;
 import strategy.ProgressiveFineStrategy;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
+import java.util.Map;
 
 public class AdminPanel extends JPanel {
 
     private final ParkingService parkingService;
     private final ReportService reportService;
+    private final Metrics metrics;
+    private final ListenerDispatcher listeners;
 
     public AdminPanel(AppContext ctx) {
         this.parkingService = ctx.parkingService;
         this.reportService = ctx.reportService;
+        this.metrics = ctx.metrics;
+        this.listeners = ctx.listeners;
 
         setLayout(new BorderLayout(10,10));
 
-        JPanel controls = new JPanel(new GridLayout(6,1,10,10));
+        JPanel controls = new JPanel(new GridLayout(8,1,10,10));
 
         JButton viewSpots = new JButton("View All Spots");
         JButton viewRevenue = new JButton("View Revenue");
         JButton viewOccupancy = new JButton("View Occupancy (Per Floor)");
         JButton viewUnpaidFines = new JButton("View Unpaid Fines");
         JButton viewParkedVehicles = new JButton("View Parked Vehicles");
+        JButton viewPerformance = new JButton("Performance");
 
         JComboBox<String> fineScheme = new JComboBox<>(new String[]{"Fixed", "Progressive", "Hourly"});
-        JLabel note = new JLabel("Fine scheme applies to FUTURE entries only.");
+        JComboBox<String> allocation = new JComboBox<>(new String[]{"First Free", "Best Fit", "Nearest Exit", "Balanced Floors"});
+        JLabel note = new JLabel("Fine scheme and allocation apply to FUTURE entries only.");
 
         controls.add(viewSpots);
         controls.add(viewRevenue);
         controls.add(viewOccupancy);
         controls.add(viewUnpaidFines);
         controls.add(viewParkedVehicles);
+        controls.add(viewPerformance);
         controls.add(fineScheme);
+        controls.add(allocation);
 
         add(controls, BorderLayout.WEST);
         add(note, BorderLayout.SOUTH);
@@ -50,6 +69,7 @@ public class AdminPanel extends JPanel {
         viewOccupancy.addActionListener(e -> showOccupancyDialog());
         viewUnpaidFines.addActionListener(e -> showUnpaidFinesDialog());
         viewParkedVehicles.addActionListener(e -> showParkedVehiclesDialog());
+        viewPerformance.addActionListener(e -> showPerformanceDialog());
 
         fineScheme.addActionListener(e -> {
             String selected = (String) fineScheme.getSelectedItem();
@@ -70,78 +90,170 @@ public class AdminPanel extends JPanel {
                     "Fine Scheme Updated",
                     JOptionPane.INFORMATION_MESSAGE);
         });
+
+        allocation.addActionListener(e -> {
+            String selected = (String) allocation.getSelectedItem();
+            if (selected == null) return;
+
+            AllocationStrategy strategy;
+            switch (selected) {
+                case "Best Fit":
+                    strategy = new BestFitAllocation();
+                    break;
+                case "Nearest Exit":
+                    strategy = new NearestExitAllocation();
+                    break;
+                case "Balanced Floors":
+                    strategy = new BalancedFloorsAllocation();
+                    break;
+                default:
+                    strategy = new FirstFreeAllocation();
+            }
+            // re-ranking walks every bay under all type locks, so it runs off the EDT like the reports
+            allocation.setEnabled(false);
+            Background.call(() -> {
+                parkingService.setAllocationStrategy(strategy);
+                return selected;
+            }, done -> {
+                allocation.setEnabled(true);
+                JOptionPane.showMessageDialog(this,
+                        "Spot allocation set to: " + done + "\n(Vehicles already parked stay where they are.)",
+                        "Allocation Updated",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }, err -> {
+                allocation.setEnabled(true);
+                showError(err);
+            });
+        });
     }
 
     private void showAllSpotsDialog() {
         String[] cols = {"Floor", "Spot ID", "Type", "Status", "Plate"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0);
-
-        for (ReportService.ParkingSpotRow r : reportService.getAllSpots()) {
-            model.addRow(new Object[]{r.floor, r.spotId, r.type, r.status, r.plate});
-        }
+        PagedTableModel<ReportService.ParkingSpotRow, Integer> model = new PagedTableModel<>(cols,
+                parkingService.getAllSpots().size(), // index-backed, no scan
+                (from, limit) -> reportService.getSpotsPage(from == null ? 0 : from, limit),
+                r -> new Object[]{r.floor, r.spotId, r.type, r.status, r.plate});
 
         JTable table = new JTable(model);
         JOptionPane.showMessageDialog(this, new JScrollPane(table), "All Spots", JOptionPane.INFORMATION_MESSAGE);
     }
 
     private void showRevenueDialog() {
-        ReportService.RevenueSummary rev = reportService.getRevenueSummary();
-        String msg = "Total Parking Fees: RM " + String.format("%.2f", rev.totalFees) + "\n"
-                + "Total Fines Paid: RM " + String.format("%.2f", rev.totalFines) + "\n"
-                + "TOTAL Revenue: RM " + String.format("%.2f", rev.totalRevenue);
-        JOptionPane.showMessageDialog(this, msg, "Revenue Summary", JOptionPane.INFORMATION_MESSAGE);
+        Background.call(reportService::getRevenueSummary, rev -> {
+            String msg = "Total Parking Fees: RM " + String.format("%.2f", rev.totalFees) + "\n"
+                    + "Total Fines Paid: RM " + String.format("%.2f", rev.totalFines) + "\n"
+                    + "TOTAL Revenue: RM " + String.format("%.2f", rev.totalRevenue);
+            JOptionPane.showMessageDialog(this, msg, "Revenue Summary", JOptionPane.INFORMATION_MESSAGE);
+        }, this::showError);
     }
 
+    // stays live while open: every entry/exit schedules a refresh, at most two per second
     private void showOccupancyDialog() {
-        ReportService.OccupancySummary occ = reportService.getOccupancySummary();
-
         String[] cols = {"Floor", "Occupied", "Total", "Occupancy %"};
         DefaultTableModel model = new DefaultTableModel(cols, 0);
+        JLabel header = new JLabel("Loading...");
 
-        occ.perFloor.forEach((floor, arr) -> {
-            int o = arr[0], t = arr[1];
-            double pct = t == 0 ? 0 : (o * 100.0 / t);
-            model.addRow(new Object[]{floor, o, t, String.format("%.1f%%", pct)});
-        });
+        Runnable reload = () -> Background.call(reportService::getOccupancySummary,
+                occ -> fillOccupancy(model, header, occ), this::showError);
+        RefreshCoalescer refresher = new RefreshCoalescer(500, reload);
+        ParkingListener listener = new ParkingListener() {
+            @Override
+            public void vehicleParked(Ticket ticket) {
+                refresher.changed();
+            }
 
-        JTable table = new JTable(model);
+            @Override
+            public void vehicleExited(Ticket ticket) {
+                refresher.changed();
+            }
+        };
+        listeners.add(listener);
+        reload.run();
 
-        String header = "Overall: " + occ.occupied + "/" + occ.total + " (" + String.format("%.1f%%", occ.occupancyRate()) + ")";
+        JTable table = new JTable(model);
         JPanel panel = new JPanel(new BorderLayout());
-        panel.add(new JLabel(header), BorderLayout.NORTH);
+        panel.add(header, BorderLayout.NORTH);
         panel.add(new JScrollPane(table), BorderLayout.CENTER);
 
         JOptionPane.showMessageDialog(this, panel, "Occupancy (Per Floor)", JOptionPane.INFORMATION_MESSAGE);
+        listeners.remove(listener);
+        refresher.stop();
+    }
+
+    private static void fillOccupancy(DefaultTableModel model, JLabel header, ReportService.OccupancySummary occ) {
+        // update cells in place when the floors are unchanged, so selection and scroll survive a refresh
+        boolean inPlace = model.getRowCount() == occ.perFloor.size();
+        if (!inPlace) model.setRowCount(0);
+        int row = 0;
+        for (Map.Entry<Integer, int[]> e : occ.perFloor.entrySet()) {
+            int o = e.getValue()[0], t = e.getValue()[1];
+            double pct = t == 0 ? 0 : (o * 100.0 / t);
+            Object[] values = {e.getKey(), o, t, String.format("%.1f%%", pct)};
+            if (inPlace) {
+                for (int c = 0; c < values.length; c++) model.setValueAt(values[c], row, c);
+            } else {
+                model.addRow(values);
+            }
+            row++;
+        }
+        header.setText("Overall: " + occ.occupied + "/" + occ.total + " (" + String.format("%.1f%%", occ.occupancyRate()) + ")");
     }
 
     private void showUnpaidFinesDialog() {
-        List<Fine> fines = reportService.getOutstandingFines();
-        String[] cols = {"Plate", "Reason", "Amount", "Issued At", "Paid"};
-        DefaultTableModel model = new DefaultTableModel(cols, 0);
+        // counting walks the unpaid index, so even that happens off the EDT
+        Background.call(reportService::countOutstandingFines, count -> {
+            String[] cols = {"Plate", "Reason", "Amount", "Issued At", "Paid"};
+            PagedTableModel<Fine, Long> model = new PagedTableModel<>(cols,
+                    count.intValue(),
+                    (from, limit) -> reportService.getOutstandingFinesPage(from == null ? 0 : from, limit),
+                    f -> new Object[]{f.getPlateNumber(), f.getReason(), String.format("RM %.2f", f.getAmount()), f.getIssuedAt(), f.isPaid()});
 
-        for (Fine f : fines) {
-            model.addRow(new Object[]{f.getPlateNumber(), f.getReason(), String.format("RM %.2f", f.getAmount()), f.getIssuedAt(), f.isPaid()});
-        }
+            JTable table = new JTable(model);
+            JOptionPane.showMessageDialog(this, new JScrollPane(table), "Outstanding Fines (Unpaid)", JOptionPane.INFORMATION_MESSAGE);
+        }, this::showError);
+    }
 
+    private void showParkedVehiclesDialog() {
+        // loads in the background and then follows entries/exits row by row
+        ParkedVehiclesModel model = new ParkedVehiclesModel(parkingService, reportService, listeners);
+        model.open();
         JTable table = new JTable(model);
-        JOptionPane.showMessageDialog(this, new JScrollPane(table), "Outstanding Fines (Unpaid)", JOptionPane.INFORMATION_MESSAGE);
+        JOptionPane.showMessageDialog(this, new JScrollPane(table), "Vehicles Currently Parked", JOptionPane.INFORMATION_MESSAGE);
+        model.close();
     }
 
-    private void showParkedVehiclesDialog() {
-        String[] cols = {"Plate", "Spot", "Type", "Entry Time", "Ticket ID"};
+    private void showError(Exception e) {
+        JOptionPane.showMessageDialog(this, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void showPerformanceDialog() {
+        String[] cols = {"Operation", "Count", "Failed", "Mean (us)", "p50 (us)", "p99 (us)", "p99.9 (us)", "Max (us)"};
         DefaultTableModel model = new DefaultTableModel(cols, 0);
+        for (Metrics.Op op : Metrics.Op.values()) {
+            LatencyHistogram.Snapshot s = metrics.snapshot(op);
+            model.addRow(new Object[]{op, s.count, metrics.getFailures(op),
+                    String.format("%.1f", s.meanNanos / 1e3), String.format("%.1f", s.p50Nanos / 1e3),
+                    String.format("%.1f", s.p99Nanos / 1e3), String.format("%.1f", s.p999Nanos / 1e3),
+                    String.format("%.1f", s.maxNanos / 1e3)});
+        }
 
-        reportService.getCurrentlyParkedTickets().forEach(t -> {
-            model.addRow(new Object[]{
-                    t.getVehicle().getPlateNumber(),
-                    t.getSpot().getSpotId(),
-                    t.getSpot().getType(),
-                    t.getEntryTime(),
-                    t.getTicketId()
-            });
-        });
+        StringBuilder rejections = new StringBuilder("Rejected entries (no free spot) by SpotType:  ");
+        for (SpotType t : SpotType.values()) {
+            rejections.append(t).append(' ').append(metrics.getRejections(t)).append("   ");
+        }
+        StringBuilder queued = new StringBuilder("Waiting in the entry queue by SpotType:  ");
+        for (SpotType t : SpotType.values()) {
+            queued.append(t).append(' ').append(metrics.getQueued(t)).append("   ");
+        }
+        JPanel counters = new JPanel(new GridLayout(2, 1));
+        counters.add(new JLabel(rejections.toString()));
+        counters.add(new JLabel(queued.toString()));
 
-        JTable table = new JTable(model);
-        JOptionPane.showMessageDialog(this, new JScrollPane(table), "Vehicles Currently Parked", JOptionPane.INFORMATION_MESSAGE);
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
+        panel.add(counters, BorderLayout.SOUTH);
+        panel.setPreferredSize(new Dimension(760, 260));
+
+        JOptionPane.showMessageDialog(this, panel, "Performance", JOptionPane.INFORMATION_MESSAGE);
     }
-}
+}
\ No newline at end of file
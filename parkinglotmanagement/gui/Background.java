@@ -0,0 +1,39 @@
+package gui;
+
+import javax.swing.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs a service call off the Event Dispatch Thread and hands the result (or the failure)
+ * back on it, so a slow report never freezes the entry form.
+ */
+public final class Background {
+
+    private Background() { }
+
+    public static <T> SwingWorker<T, Void> call(Callable<T> work, Consumer<T> onDone, Consumer<Exception> onError) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return work.call();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    onDone.accept(get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onError.accept(cause instanceof Exception ? (Exception) cause : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        worker.execute();
+        return worker;
+    }
+}
\ No newline at end of file
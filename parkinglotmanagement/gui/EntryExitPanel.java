@@ -7,6 +7,7 @@ import service.PaymentService;
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.LocalDateTime;
 
 public class EntryExitPanel extends JPanel {
 
@@ -23,7 +24,7 @@ public class EntryExitPanel extends JPanel {
 
         setLayout(new BorderLayout());
 
-        JPanel topPanel = new JPanel(new GridLayout(3, 2, 10, 10));
+        JPanel topPanel = new JPanel(new GridLayout(4, 2, 10, 10));
 
         plateField = new JTextField();
         vehicleTypeBox = new JComboBox<>(new String[]{
@@ -32,6 +33,7 @@ public class EntryExitPanel extends JPanel {
 
         JButton entryButton = new JButton("Vehicle Entry");
         JButton exitButton = new JButton("Vehicle Exit");
+        JButton quoteButton = new JButton("Amount Due");
 
         topPanel.add(new JLabel("License Plate:"));
         topPanel.add(plateField);
@@ -39,6 +41,7 @@ public class EntryExitPanel extends JPanel {
         topPanel.add(vehicleTypeBox);
         topPanel.add(entryButton);
         topPanel.add(exitButton);
+        topPanel.add(quoteButton);
 
         outputArea = new JTextArea();
         outputArea.setEditable(false);
@@ -48,6 +51,7 @@ public class EntryExitPanel extends JPanel {
 
         entryButton.addActionListener(e -> handleEntry());
         exitButton.addActionListener(e -> handleExit());
+        quoteButton.addActionListener(e -> handleQuote());
     }
 
     private void handleEntry() {
@@ -57,18 +61,20 @@ public class EntryExitPanel extends JPanel {
             return;
         }
 
-        try {
-            Vehicle v = createVehicleFromUI(plate);
-            Ticket t = parkingService.parkVehicle(v);
-
+        // the service call runs off the EDT, so a report being built elsewhere never holds up the gate
+        Vehicle v = createVehicleFromUI(plate);
+        Background.call(() -> parkingService.tryParkVehicle(v), attempt -> {
+            if (!attempt.isSuccess()) {
+                outputArea.append(" ENTRY FAILED: " + attempt.status.describe(plate) + "\n\n");
+                return;
+            }
+            Ticket t = attempt.ticket;
             outputArea.append(" ENTRY SUCCESS\n");
             outputArea.append("Ticket ID: " + t.getTicketId() + "\n");
             outputArea.append("Plate: " + t.getVehicle().getPlateNumber() + "\n");
             outputArea.append("Spot: " + t.getSpot().getSpotId() + " (" + t.getSpot().getType() + ")\n");
             outputArea.append("Entry Time: " + t.getEntryTime() + "\n\n");
-        } catch (Exception ex) {
-            outputArea.append(" ENTRY FAILED: " + ex.getMessage() + "\n\n");
-        }
+        }, ex -> outputArea.append(" ENTRY FAILED: " + ex.getMessage() + "\n\n"));
     }
 
     private void handleExit() {
@@ -78,36 +84,59 @@ public class EntryExitPanel extends JPanel {
             return;
         }
 
-        try {
-            ParkingService.ExitResult result = parkingService.exitVehicle(plate);
-
-            double parkingFee = result.parkingFee;
-            double fineAmt = (result.fine == null) ? 0 : result.fine.getAmount();
-            double total = result.totalDue();
-
-            StringBuilder bill = new StringBuilder();
-            bill.append("Ticket ID: ").append(result.ticket.getTicketId()).append("\n");
-            bill.append("Plate: ").append(plate).append("\n");
-            bill.append("Hours Stayed: ").append(result.hoursStayed).append("\n");
-            bill.append("Parking Fee: RM ").append(String.format("%.2f", parkingFee)).append("\n");
-            bill.append("Fine: RM ").append(String.format("%.2f", fineAmt)).append("\n");
-            bill.append("-------------------------\n");
-            bill.append("TOTAL: RM ").append(String.format("%.2f", total)).append("\n\n");
-            bill.append("Pay fine now? (Parking fee will be recorded either way.)");
-
-            int choice = JOptionPane.showConfirmDialog(this, bill.toString(), "Exit Billing", JOptionPane.YES_NO_OPTION);
-
-            if (choice == JOptionPane.YES_OPTION) {
-                paymentService.recordPayment(plate, parkingFee, result.fine);
-                outputArea.append(" EXIT + PAYMENT RECORDED (fee + fine if any)\n\n");
+        Background.call(() -> parkingService.tryExitVehicle(plate), attempt -> {
+            if (attempt.isSuccess()) {
+                showBill(plate, attempt.result);
             } else {
-                // record parking fee only; leave fine unpaid
-                paymentService.recordPayment(plate, parkingFee, null);
-                outputArea.append("EXIT RECORDED (parking fee paid). Fine remains UNPAID if it exists.\n\n");
+                outputArea.append(" EXIT FAILED: " + attempt.status.describe(plate) + "\n\n");
             }
+        }, ex -> outputArea.append(" EXIT FAILED: " + ex.getMessage() + "\n\n"));
+    }
+
+    // what the driver would pay leaving now; the ticket stays open
+    private void handleQuote() {
+        String plate = plateField.getText().trim();
+        if (plate.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter a license plate.", "Validation", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        Background.call(() -> parkingService.quoteExit(plate, LocalDateTime.now()), q -> {
+            outputArea.append(" AMOUNT DUE\n");
+            outputArea.append("Plate: " + plate + "\n");
+            outputArea.append("Hours Stayed: " + q.hoursStayed + "\n");
+            outputArea.append("Parking Fee: RM " + String.format("%.2f", q.parkingFee) + "\n");
+            outputArea.append("Fine: RM " + String.format("%.2f", q.fineAmount) + "\n");
+            outputArea.append("TOTAL: RM " + String.format("%.2f", q.totalDue()) + " (until " + q.validUntil + ")\n\n");
+        }, ex -> outputArea.append(" QUOTE FAILED: " + ex.getMessage() + "\n\n"));
+    }
 
-        } catch (Exception ex) {
-            outputArea.append(" EXIT FAILED: " + ex.getMessage() + "\n\n");
+    private void showBill(String plate, ParkingService.ExitResult result) {
+        double parkingFee = result.parkingFee;
+        double fineAmt = (result.fine == null) ? 0 : result.fine.getAmount();
+        double total = result.totalDue();
+
+        StringBuilder bill = new StringBuilder();
+        bill.append("Ticket ID: ").append(result.ticket.getTicketId()).append("\n");
+        bill.append("Plate: ").append(plate).append("\n");
+        bill.append("Hours Stayed: ").append(result.hoursStayed).append("\n");
+        bill.append("Parking Fee: RM ").append(String.format("%.2f", parkingFee)).append("\n");
+        bill.append("Fine: RM ").append(String.format("%.2f", fineAmt)).append("\n");
+        bill.append("-------------------------\n");
+        bill.append("TOTAL: RM ").append(String.format("%.2f", total)).append("\n\n");
+        bill.append("Pay fine now? (Parking fee will be recorded either way.)");
+
+        int choice = JOptionPane.showConfirmDialog(this, bill.toString(), "Exit Billing", JOptionPane.YES_NO_OPTION);
+
+        if (choice == JOptionPane.YES_OPTION) {
+            Background.call(() -> paymentService.recordPayment(plate, parkingFee, result.fine),
+                    p -> outputArea.append(" EXIT + PAYMENT RECORDED (fee + fine if any)\n\n"),
+                    ex -> outputArea.append(" PAYMENT FAILED: " + ex.getMessage() + "\n\n"));
+        } else {
+            // record parking fee only; leave fine unpaid
+            Background.call(() -> paymentService.recordPayment(plate, parkingFee, null),
+                    p -> outputArea.append("EXIT RECORDED (parking fee paid). Fine remains UNPAID if it exists.\n\n"),
+                    ex -> outputArea.append(" PAYMENT FAILED: " + ex.getMessage() + "\n\n"));
         }
     }
 
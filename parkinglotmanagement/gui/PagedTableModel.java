@@ -0,0 +1,88 @@
+package gui;
+
+import service.ReportService;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Table model that pulls rows from a paged report only as the JTable asks for them,
+ * so opening a big report costs one page instead of the whole list.
+ * Pages are fetched on a background thread; rows not loaded yet show blank
+ * and fill in when their page arrives.
+ *
+ * The row count is taken when the model is created; if the report shrinks while
+ * the dialog is open the missing rows show up blank.
+ */
+public class PagedTableModel<T, K> extends AbstractTableModel {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final String[] columns;
+    private final int rowCount;
+    private final PageSource<T, K> source;
+    private final Function<T, Object[]> toRow;
+
+    private final List<Object[]> loaded = new ArrayList<>();
+    private K nextKey;
+    private boolean exhausted;
+    private boolean loading;
+
+    public interface PageSource<T, K> {
+        ReportService.Page<T, K> fetch(K fromKey, int limit); // fromKey == null for the first page
+    }
+
+    public PagedTableModel(String[] columns, int rowCount, PageSource<T, K> source, Function<T, Object[]> toRow) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        this.source = source;
+        this.toRow = toRow;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (row < loaded.size()) return loaded.get(row)[column];
+        loadNextPage();
+        return "";
+    }
+
+    // one page in flight at a time; repainting the blank rows asks for the next one if they are still in view
+    private void loadNextPage() {
+        if (loading || exhausted) return;
+        loading = true;
+        K from = nextKey;
+        Background.call(() -> {
+            ReportService.Page<T, K> page = source.fetch(from, PAGE_SIZE);
+            List<Object[]> rows = new ArrayList<>(page.items.size());
+            for (T item : page.items) rows.add(toRow.apply(item));
+            return new ReportService.Page<>(rows, page.nextKey);
+        }, page -> {
+            loading = false;
+            int first = loaded.size();
+            loaded.addAll(page.items);
+            nextKey = page.nextKey;
+            exhausted = nextKey == null;
+            if (first < rowCount) fireTableRowsUpdated(first, rowCount - 1);
+        }, e -> {
+            loading = false;
+            exhausted = true; // leave the rest blank rather than retrying forever
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package gui;
+
+import event.ListenerDispatcher;
+import event.ParkingListener;
+import model.Ticket;
+import service.ParkingService;
+import service.ReportService;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parked-vehicles table that stays current while it is open. The lot is loaded page by page
+ * in the background, then every entry or exit is applied as a single row insert or delete
+ * instead of reloading the whole list. Rows stay in plate order, like the report they come from.
+ *
+ * Call open() before showing the table and close() once it is gone.
+ */
+public class ParkedVehiclesModel extends AbstractTableModel implements ParkingListener {
+
+    private static final String[] COLUMNS = {"Plate", "Spot", "Type", "Entry Time", "Ticket ID"};
+    private static final int PAGE_SIZE = 500;
+
+    private final ParkingService parkingService;
+    private final ReportService reportService;
+    private final ListenerDispatcher listeners;
+    private final List<Ticket> rows = new ArrayList<>(); // EDT only
+    private SwingWorker<Void, List<Ticket>> loader;
+
+    public ParkedVehiclesModel(ParkingService parkingService, ReportService reportService, ListenerDispatcher listeners) {
+        this.parkingService = parkingService;
+        this.reportService = reportService;
+        this.listeners = listeners;
+    }
+
+    public void open() {
+        // listen first, so nothing that happens during the load is missed
+        listeners.add(this);
+        loader = new SwingWorker<Void, List<Ticket>>() {
+            @Override
+            protected Void doInBackground() {
+                String after = null;
+                do {
+                    ReportService.Page<Ticket, String> page = reportService.getParkedTicketsPage(after, PAGE_SIZE);
+                    publish(page.items);
+                    after = page.nextKey;
+                } while (after != null && !isCancelled());
+                return null;
+            }
+
+            @Override
+            protected void process(List<List<Ticket>> pages) {
+                for (List<Ticket> page : pages) {
+                    for (Ticket t : page) insert(t);
+                }
+            }
+        };
+        loader.execute();
+    }
+
+    public void close() {
+        listeners.remove(this);
+        if (loader != null) loader.cancel(true);
+    }
+
+    // --- change events, arriving on the event-bus thread ---
+
+    @Override
+    public void vehicleParked(Ticket ticket) {
+        SwingUtilities.invokeLater(() -> insert(ticket));
+    }
+
+    @Override
+    public void vehicleExited(Ticket ticket) {
+        SwingUtilities.invokeLater(() -> remove(ticket));
+    }
+
+    private void insert(Ticket t) {
+        // pages and park events can arrive after the exit that closed them; only show tickets still open
+        if (parkingService.getActiveTicket(plateOf(t)) != t) return;
+
+        int i = indexOf(plateOf(t));
+        if (i >= 0) {
+            rows.set(i, t); // same plate re-entered, or already loaded from a page
+            fireTableRowsUpdated(i, i);
+        } else {
+            i = -i - 1;
+            rows.add(i, t);
+            fireTableRowsInserted(i, i);
+        }
+    }
+
+    private void remove(Ticket t) {
+        int i = indexOf(plateOf(t));
+        if (i >= 0 && rows.get(i) == t) {
+            rows.remove(i);
+            fireTableRowsDeleted(i, i);
+        }
+    }
+
+    // binary search by plate; same contract as Collections.binarySearch
+    private int indexOf(String plate) {
+        int lo = 0, hi = rows.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = plateOf(rows.get(mid)).compareTo(plate);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    private static String plateOf(Ticket t) {
+        return t.getVehicle().getPlateNumber();
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Ticket t = rows.get(row);
+        switch (column) {
+            case 0: return plateOf(t);
+            case 1: return t.getSpot().getSpotId();
+            case 2: return t.getSpot().getType();
+            case 3: return t.getEntryTime();
+            default: return t.getTicketId();
+        }
+    }
+}
\ No newline at end of file
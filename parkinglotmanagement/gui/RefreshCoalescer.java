@@ -0,0 +1,33 @@
+package gui;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Turns a stream of change events from any thread into at most one refresh per interval on the EDT.
+ * A burst of a thousand entries costs one report query, not a thousand.
+ */
+public class RefreshCoalescer {
+
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final Timer timer;
+
+    public RefreshCoalescer(int intervalMillis, Runnable refresh) {
+        timer = new Timer(intervalMillis, e -> {
+            pending.set(false);
+            refresh.run();
+        });
+        timer.setRepeats(false);
+    }
+
+    // safe to call from any thread
+    public void changed() {
+        if (pending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(timer::start);
+        }
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+}
\ No newline at end of file
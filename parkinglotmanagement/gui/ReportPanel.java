@@ -1,21 +1,46 @@
 package gui;
 
-import model.Fine;
+import event.ParkingListener;
+import history.HistoryStore;
 import model.Ticket;
 import service.AppContext;
 import service.ReportService;
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class ReportPanel extends JPanel {
 
+    // report rows are published to the text area in chunks of this many
+    private static final int CHUNK = 200;
+
     private final ReportService reportService;
     private JTextArea reportArea;
+    private SwingWorker<?, ?> running;        // report currently being built, if any
+    private boolean showingOccupancy;         // occupancy refreshes itself on entry/exit while shown
+    private final RefreshCoalescer occupancyRefresh = new RefreshCoalescer(500, () -> {
+        if (showingOccupancy) renderOccupancy();
+    });
 
     public ReportPanel(AppContext ctx) {
         this.reportService = ctx.reportService;
+        ctx.listeners.add(new ParkingListener() {
+            @Override
+            public void vehicleParked(Ticket ticket) {
+                occupancyRefresh.changed();
+            }
+
+            @Override
+            public void vehicleExited(Ticket ticket) {
+                occupancyRefresh.changed();
+            }
+        });
 
         setLayout(new BorderLayout());
 
@@ -27,11 +52,13 @@ public class ReportPanel extends JPanel {
         JButton occupancyBtn = new JButton("Occupancy Report");
         JButton revenueBtn = new JButton("Revenue Report");
         JButton finesBtn = new JButton("Outstanding Fines Report");
+        JButton trendBtn = new JButton("Trend Report");
 
         top.add(vehiclesBtn);
         top.add(occupancyBtn);
         top.add(revenueBtn);
         top.add(finesBtn);
+        top.add(trendBtn);
 
         add(top, BorderLayout.NORTH);
         add(new JScrollPane(reportArea), BorderLayout.CENTER);
@@ -40,30 +67,29 @@ public class ReportPanel extends JPanel {
         occupancyBtn.addActionListener(e -> renderOccupancy());
         revenueBtn.addActionListener(e -> renderRevenue());
         finesBtn.addActionListener(e -> renderFines());
+        trendBtn.addActionListener(e -> renderTrend());
     }
 
     private void renderParkedVehicles() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(" PARKED VEHICLES REPORT \n\n");
-
-        List<Ticket> tickets = reportService.getCurrentlyParkedTickets();
-        if (tickets.isEmpty()) {
-            sb.append("No vehicles currently parked.\n");
-        } else {
-            for (Ticket t : tickets) {
-                sb.append("Plate: ").append(t.getVehicle().getPlateNumber()).append("\n");
-                sb.append("Ticket: ").append(t.getTicketId()).append("\n");
-                sb.append("Spot: ").append(t.getSpot().getSpotId()).append(" (").append(t.getSpot().getType()).append(")\n");
-                sb.append("Entry: ").append(t.getEntryTime()).append("\n");
-                sb.append("-------------------------------\n");
-            }
-        }
-        reportArea.setText(sb.toString());
+        streamReport(" PARKED VEHICLES REPORT \n\n", "No vehicles currently parked.\n",
+                reportService::streamParkedTickets, (sb, t) -> {
+                    sb.append("Plate: ").append(t.getVehicle().getPlateNumber()).append("\n");
+                    sb.append("Ticket: ").append(t.getTicketId()).append("\n");
+                    sb.append("Spot: ").append(t.getSpot().getSpotId()).append(" (").append(t.getSpot().getType()).append(")\n");
+                    sb.append("Entry: ").append(t.getEntryTime()).append("\n");
+                    sb.append("-------------------------------\n");
+                });
     }
 
     private void renderOccupancy() {
-        ReportService.OccupancySummary occ = reportService.getOccupancySummary();
+        boolean refresh = showingOccupancy; // a live refresh keeps the current text until the new one is ready
+        start(Background.call(() -> occupancyText(reportService.getOccupancySummary()),
+                reportArea::setText, this::showError));
+        if (!refresh) reportArea.setText("Loading...");
+        showingOccupancy = true;
+    }
 
+    private static String occupancyText(ReportService.OccupancySummary occ) {
         StringBuilder sb = new StringBuilder();
         sb.append("OCCUPANCY REPORT\n\n");
         sb.append("Overall Occupancy: ").append(occ.occupied).append("/").append(occ.total)
@@ -76,39 +102,106 @@ public class ReportPanel extends JPanel {
                     .append(" (").append(String.format("%.1f%%", pct)).append(")\n");
         });
 
-        reportArea.setText(sb.toString());
+        sb.append("\n");
+        occ.perType.forEach((type, arr) -> {
+            int o = arr[0], t = arr[1];
+            double pct = t == 0 ? 0 : (o * 100.0 / t);
+            sb.append(type).append(": ").append(o).append("/").append(t)
+                    .append(" (").append(String.format("%.1f%%", pct)).append(")\n");
+        });
+
+        return sb.toString();
     }
 
     private void renderRevenue() {
-        ReportService.RevenueSummary rev = reportService.getRevenueSummary();
+        start(Background.call(reportService::getRevenueSummary, rev -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append("REVENUE REPORT\n\n");
+            sb.append("Total Parking Fees: RM ").append(String.format("%.2f", rev.totalFees)).append("\n");
+            sb.append("Total Fines Paid: RM ").append(String.format("%.2f", rev.totalFines)).append("\n");
+            sb.append("TOTAL Revenue: RM ").append(String.format("%.2f", rev.totalRevenue)).append("\n");
+
+            reportArea.setText(sb.toString());
+        }, this::showError));
+        reportArea.setText("Loading...");
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("REVENUE REPORT\n\n");
-        sb.append("Total Parking Fees: RM ").append(String.format("%.2f", rev.totalFees)).append("\n");
-        sb.append("Total Fines Paid: RM ").append(String.format("%.2f", rev.totalFines)).append("\n");
-        sb.append("TOTAL Revenue: RM ").append(String.format("%.2f", rev.totalRevenue)).append("\n");
+    private void renderFines() {
+        streamReport("OUTSTANDING FINES REPORT\n\n", "No unpaid fines.\n",
+                reportService::streamOutstandingFines, (sb, f) -> {
+                    sb.append("Plate: ").append(f.getPlateNumber()).append("\n");
+                    sb.append("Reason: ").append(f.getReason()).append("\n");
+                    sb.append("Amount: RM ").append(String.format("%.2f", f.getAmount())).append("\n");
+                    sb.append("Issued: ").append(f.getIssuedAt()).append("\n");
+                    sb.append("-------------------------------\n");
+                });
+    }
 
-        reportArea.setText(sb.toString());
+    private void renderTrend() {
+        start(Background.call(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            StringBuilder sb = new StringBuilder();
+            sb.append("TREND REPORT\n\n");
+            sb.append("Last 24 hours, by hour\n");
+            trendText(sb, reportService.getTrend(HistoryStore.Resolution.HOUR, now.minusHours(23), now, null, null));
+            sb.append("\nLast 7 days, by day\n");
+            trendText(sb, reportService.getTrend(HistoryStore.Resolution.DAY, now.minusDays(6), now, null, null));
+            return sb.toString();
+        }, reportArea::setText, this::showError));
+        reportArea.setText("Loading...");
     }
 
-    private void renderFines() {
-        List<Fine> fines = reportService.getOutstandingFines();
+    private static void trendText(StringBuilder sb, HistoryStore.Series s) {
+        sb.append(String.format("%-17s %6s %8s %8s %8s %12s%n", "from", "peak", "average", "entries", "exits", "revenue RM"));
+        for (int i = 0; i < s.size; i++) {
+            sb.append(String.format("%-17s %6d %8.1f %8d %8d %12.2f%n",
+                    s.start(i).toString().replace('T', ' '), s.peakOccupied[i], s.avgOccupied[i],
+                    s.entries[i], s.exits[i], (s.feeCents[i] + s.fineCents[i]) / 100.0));
+        }
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append("OUTSTANDING FINES REPORT\n\n");
-
-        if (fines.isEmpty()) {
-            sb.append("No unpaid fines.\n");
-        } else {
-            for (Fine f : fines) {
-                sb.append("Plate: ").append(f.getPlateNumber()).append("\n");
-                sb.append("Reason: ").append(f.getReason()).append("\n");
-                sb.append("Amount: RM ").append(String.format("%.2f", f.getAmount())).append("\n");
-                sb.append("Issued: ").append(f.getIssuedAt()).append("\n");
-                sb.append("-------------------------------\n");
+    /**
+     * Builds a long report on a worker thread and appends it to the text area
+     * a chunk at a time, so the first rows show up at once and the UI never waits for the last.
+     */
+    private <T> void streamReport(String title, String emptyText, Supplier<Stream<T>> source, BiConsumer<StringBuilder, T> format) {
+        reportArea.setText(title);
+        start(new SwingWorker<Void, String>() {
+            @Override
+            protected Void doInBackground() {
+                Iterator<T> items = source.get().iterator();
+                if (!items.hasNext()) publish(emptyText);
+
+                StringBuilder sb = new StringBuilder();
+                int n = 0;
+                while (items.hasNext() && !isCancelled()) {
+                    format.accept(sb, items.next());
+                    if (++n % CHUNK == 0) {
+                        publish(sb.toString());
+                        sb.setLength(0);
+                    }
+                }
+                if (sb.length() > 0) publish(sb.toString());
+                return null;
             }
-        }
 
-        reportArea.setText(sb.toString());
+            @Override
+            protected void process(List<String> chunks) {
+                if (isCancelled()) return;
+                for (String chunk : chunks) reportArea.append(chunk);
+            }
+        });
+    }
+
+    // a new report replaces whatever was still loading
+    private void start(SwingWorker<?, ?> worker) {
+        if (running != null) running.cancel(true);
+        running = worker;
+        showingOccupancy = false;
+        if (worker.getState() == SwingWorker.StateValue.PENDING) worker.execute();
+    }
+
+    private void showError(Exception e) {
+        reportArea.setText("Report failed: " + e.getMessage());
     }
-}
+}
\ No newline at end of file
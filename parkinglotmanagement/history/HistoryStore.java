@@ -0,0 +1,346 @@
+package history;
+
+import event.EventHandler;
+import event.ParkingEvent;
+import model.Floor;
+import model.Payment;
+import model.SpotType;
+import model.Ticket;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Occupancy and revenue over time, kept as fixed-size columns of primitives at three
+ * resolutions. Raw data is per minute; every minute that closes is folded into its hour
+ * and its day. Each resolution is a ring, so the oldest buckets are overwritten (evicted)
+ * once it is full: two days of minutes, about three months of hours, five years of days.
+ *
+ * Occupancy columns: one per floor x SpotType, plus totals per floor, per type and for the
+ * whole lot, so any of those selections is a single column read. Each bucket holds the
+ * peak occupancy, occupied-spot-milliseconds (for the time-weighted average) and the
+ * entries and exits. Revenue is per bucket for the lot as a whole, in cents.
+ *
+ * Fed from the EventBus; times are the wall-clock times on the tickets and payments.
+ * Everything lives in memory and starts empty after a restart.
+ */
+public class HistoryStore implements EventHandler {
+
+    public enum Resolution {
+        MINUTE(60_000L, 2 * 24 * 60),
+        HOUR(3_600_000L, 92 * 24),
+        DAY(86_400_000L, 5 * 366);
+
+        public final long millis;
+        final int capacity;
+
+        Resolution(long millis, int capacity) {
+            this.millis = millis;
+            this.capacity = capacity;
+        }
+    }
+
+    private static final SpotType[] TYPES = SpotType.values();
+
+    private final Map<Floor, Integer> floorIndex = new IdentityHashMap<>();
+    private final int[] floorNumbers;
+    private final int columns;
+    private final int[] current;   // occupancy right now, per column
+    private final long[] since;    // when current[c] was last credited to the open minute
+    private final long startMillis;
+    private long now;              // latest event time seen
+
+    private final Ring minutes;
+    private final Ring hours;
+    private final Ring days;
+    private long openMinute;
+
+    /** Starts recording at start, with occupancy seeded from the floors' live counters. */
+    public HistoryStore(List<Floor> floors, LocalDateTime start) {
+        floorNumbers = new int[floors.size()];
+        for (int f = 0; f < floors.size(); f++) {
+            floorIndex.put(floors.get(f), f);
+            floorNumbers[f] = floors.get(f).getFloorNumber();
+        }
+        columns = floors.size() * TYPES.length + floors.size() + TYPES.length + 1;
+        current = new int[columns];
+        since = new long[columns];
+        minutes = new Ring(Resolution.MINUTE);
+        hours = new Ring(Resolution.HOUR);
+        days = new Ring(Resolution.DAY);
+
+        for (int f = 0; f < floors.size(); f++) {
+            for (SpotType t : TYPES) {
+                int n = floors.get(f).getOccupiedCount(t);
+                for (int c : columnsOf(f, t.ordinal())) current[c] += n;
+            }
+        }
+
+        startMillis = now = millis(start);
+        Arrays.fill(since, now);
+        openMinute = Math.floorDiv(now, Resolution.MINUTE.millis);
+        minutes.open(openMinute, current);
+    }
+
+    // --- column layout ---
+
+    private int cell(int floor, int type) { return floor * TYPES.length + type; }
+    private int floorTotal(int floor) { return floorNumbers.length * TYPES.length + floor; }
+    private int typeTotal(int type) { return floorNumbers.length * (TYPES.length + 1) + type; }
+    private int lotTotal() { return columns - 1; }
+
+    private int[] columnsOf(int floor, int type) {
+        return new int[]{cell(floor, type), floorTotal(floor), typeTotal(type), lotTotal()};
+    }
+
+    // floorNumber == null and/or type == null select the totals
+    private int column(Integer floorNumber, SpotType type) {
+        if (floorNumber == null) return type == null ? lotTotal() : typeTotal(type.ordinal());
+        int f = -1;
+        for (int i = 0; i < floorNumbers.length; i++) {
+            if (floorNumbers[i] == floorNumber) f = i;
+        }
+        if (f < 0) throw new IllegalArgumentException("No such floor: " + floorNumber);
+        return type == null ? floorTotal(f) : cell(f, type.ordinal());
+    }
+
+    // --- recording ---
+
+    @Override
+    public void onEvent(ParkingEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case VEHICLE_PARKED:   recordEntry(event.getTicket()); break;
+            case VEHICLE_EXITED:   recordExit(event.getTicket()); break;
+            case PAYMENT_RECORDED: recordPayment(event.getPayment()); break;
+            default: break; // fines only count once they are paid
+        }
+    }
+
+    public synchronized void recordEntry(Ticket ticket) {
+        advance(millis(ticket.getEntryTime()));
+        change(ticket, +1, minutes.entries);
+    }
+
+    public synchronized void recordExit(Ticket ticket) {
+        LocalDateTime exit = ticket.getExitTime();
+        advance(exit == null ? now : millis(exit));
+        change(ticket, -1, minutes.exits);
+    }
+
+    public synchronized void recordPayment(Payment payment) {
+        advance(millis(payment.getPaidAt()));
+        int slot = minutes.slotOf(openMinute);
+        minutes.feeCents[slot] += Math.round(payment.getParkingFee() * 100);
+        minutes.fineCents[slot] += Math.round(payment.getFinePaid() * 100);
+    }
+
+    private void change(Ticket ticket, int delta, int[] counter) {
+        Integer f = floorIndex.get(ticket.getSpot().getFloor());
+        if (f == null) return; // spot from a floor this store doesn't know
+        int slot = minutes.slotOf(openMinute);
+        for (int c : columnsOf(f, ticket.getSpot().getType().ordinal())) {
+            credit(slot, c);
+            current[c] += delta;
+            int i = slot * columns + c;
+            if (current[c] > minutes.peak[i]) minutes.peak[i] = current[c];
+            counter[i]++;
+        }
+    }
+
+    private void credit(int slot, int c) {
+        minutes.occupiedMillis[slot * columns + c] += current[c] * (now - since[c]);
+        since[c] = now;
+    }
+
+    // closes every minute that ended before t, folding each into its hour and day
+    private void advance(long t) {
+        if (t <= now) return; // events can arrive slightly out of order; count them in the open minute
+        long target = Math.floorDiv(t, Resolution.MINUTE.millis);
+        while (openMinute < target) {
+            int slot = minutes.slotOf(openMinute);
+            now = (openMinute + 1) * Resolution.MINUTE.millis;
+            for (int c = 0; c < columns; c++) credit(slot, c);
+            hours.fold(minutes, slot);
+            days.fold(minutes, slot);
+            openMinute++;
+            minutes.open(openMinute, current);
+        }
+        now = t;
+    }
+
+    // --- queries ---
+
+    /**
+     * One entry per bucket starting in [from, to) that is still held, oldest first.
+     * floorNumber / type null means all floors / all types. The bucket in progress is
+     * included with what it holds so far.
+     */
+    public synchronized Series query(Resolution res, LocalDateTime from, LocalDateTime to, Integer floorNumber, SpotType type) {
+        int c = column(floorNumber, type);
+        Ring ring = ring(res);
+        long openNo = Math.floorDiv(now, res.millis);
+        long first = Math.max(Math.floorDiv(millis(from), res.millis), openNo - res.capacity + 1);
+        long last = Math.min(Math.floorDiv(millis(to) - 1, res.millis), openNo);
+
+        int n = (int) Math.max(0, last - first + 1);
+        Series s = new Series(res, n);
+        for (long no = first; no <= last; no++) {
+            boolean open = no == openNo;
+            if (!ring.holds(no) && !open) continue;
+
+            int k = s.size++;
+            long start = no * res.millis;
+            s.startMillis[k] = start;
+            if (ring.holds(no)) ring.read(no, c, s, k);
+            if (open) {
+                // in-progress minute plus whatever has not been credited to it yet
+                if (ring != minutes) minutes.read(openMinute, c, s, k, true);
+                s.occupiedMillis[k] += current[c] * (now - since[c]);
+            }
+            long span = Math.min(start + res.millis, now) - Math.max(start, startMillis);
+            s.avgOccupied[k] = span > 0 ? (double) s.occupiedMillis[k] / span : current[c];
+        }
+        return s;
+    }
+
+    /** Highest occupancy of the whole lot between from and to, from the finest resolution still covering from. */
+    public synchronized int peakOccupancy(LocalDateTime from, LocalDateTime to) {
+        Series s = query(finestCovering(from), from, to, null, null);
+        int peak = 0;
+        for (int i = 0; i < s.size; i++) peak = Math.max(peak, s.peakOccupied[i]);
+        return peak;
+    }
+
+    public synchronized Resolution finestCovering(LocalDateTime from) {
+        long t = millis(from);
+        for (Resolution r : Resolution.values()) {
+            long oldest = (Math.floorDiv(now, r.millis) - r.capacity + 1) * r.millis;
+            if (t >= oldest) return r;
+        }
+        return Resolution.DAY;
+    }
+
+    private Ring ring(Resolution res) {
+        switch (res) {
+            case MINUTE: return minutes;
+            case HOUR:   return hours;
+            default:     return days;
+        }
+    }
+
+    // wall-clock time as if it were UTC, so day buckets start at local midnight
+    private static long millis(LocalDateTime t) {
+        return t.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    /** Query result: parallel arrays, one index per bucket. Revenue is for the whole lot. */
+    public static class Series {
+        public final Resolution resolution;
+        public int size;
+        public final long[] startMillis;
+        public final int[] peakOccupied;
+        public final double[] avgOccupied;
+        public final long[] occupiedMillis;
+        public final int[] entries;
+        public final int[] exits;
+        public final long[] feeCents;
+        public final long[] fineCents;
+
+        Series(Resolution resolution, int capacity) {
+            this.resolution = resolution;
+            startMillis = new long[capacity];
+            peakOccupied = new int[capacity];
+            avgOccupied = new double[capacity];
+            occupiedMillis = new long[capacity];
+            entries = new int[capacity];
+            exits = new int[capacity];
+            feeCents = new long[capacity];
+            fineCents = new long[capacity];
+        }
+
+        public LocalDateTime start(int i) {
+            return LocalDateTime.ofEpochSecond(startMillis[i] / 1000, 0, ZoneOffset.UTC);
+        }
+    }
+
+    // one resolution; slot = bucket number modulo capacity, all columns of a slot side by side
+    private final class Ring {
+        final Resolution res;
+        final long[] bucketNo;
+        final int[] peak;
+        final long[] occupiedMillis;
+        final int[] entries;
+        final int[] exits;
+        final long[] feeCents;
+        final long[] fineCents;
+
+        Ring(Resolution res) {
+            this.res = res;
+            bucketNo = new long[res.capacity];
+            Arrays.fill(bucketNo, Long.MIN_VALUE);
+            peak = new int[res.capacity * columns];
+            occupiedMillis = new long[res.capacity * columns];
+            entries = new int[res.capacity * columns];
+            exits = new int[res.capacity * columns];
+            feeCents = new long[res.capacity];
+            fineCents = new long[res.capacity];
+        }
+
+        int slotOf(long no) {
+            return (int) Math.floorMod(no, (long) res.capacity);
+        }
+
+        boolean holds(long no) {
+            return bucketNo[slotOf(no)] == no;
+        }
+
+        // reuses the slot, evicting whatever bucket it held
+        int open(long no, int[] initialPeak) {
+            int slot = slotOf(no);
+            bucketNo[slot] = no;
+            int base = slot * columns;
+            for (int c = 0; c < columns; c++) {
+                peak[base + c] = initialPeak == null ? 0 : initialPeak[c];
+                occupiedMillis[base + c] = 0;
+                entries[base + c] = 0;
+                exits[base + c] = 0;
+            }
+            feeCents[slot] = 0;
+            fineCents[slot] = 0;
+            return slot;
+        }
+
+        void fold(Ring minute, int minuteSlot) {
+            long no = Math.floorDiv(minute.bucketNo[minuteSlot] * Resolution.MINUTE.millis, res.millis);
+            int slot = holds(no) ? slotOf(no) : open(no, null);
+            int base = slot * columns, from = minuteSlot * columns;
+            for (int c = 0; c < columns; c++) {
+                peak[base + c] = Math.max(peak[base + c], minute.peak[from + c]);
+                occupiedMillis[base + c] += minute.occupiedMillis[from + c];
+                entries[base + c] += minute.entries[from + c];
+                exits[base + c] += minute.exits[from + c];
+            }
+            feeCents[slot] += minute.feeCents[minuteSlot];
+            fineCents[slot] += minute.fineCents[minuteSlot];
+        }
+
+        void read(long no, int c, Series s, int k) {
+            read(no, c, s, k, false);
+        }
+
+        // merge = add onto what is already in s[k] (peak takes the max)
+        void read(long no, int c, Series s, int k, boolean merge) {
+            int slot = slotOf(no), i = slot * columns + c;
+            s.peakOccupied[k] = merge ? Math.max(s.peakOccupied[k], peak[i]) : peak[i];
+            s.occupiedMillis[k] += occupiedMillis[i];
+            s.entries[k] += entries[i];
+            s.exits[k] += exits[i];
+            s.feeCents[k] += feeCents[slot];
+            s.fineCents[k] += fineCents[slot];
+        }
+    }
+}
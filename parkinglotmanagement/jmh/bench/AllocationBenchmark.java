@@ -0,0 +1,112 @@
+package bench;
+
+import model.Car;
+import model.Floor;
+import model.HandicappedVehicle;
+import model.Motorcycle;
+import model.ParkingSpot;
+import model.SUV;
+import model.SpotType;
+import model.Vehicle;
+import service.ParkingService;
+import strategy.AllocationStrategy;
+import strategy.BalancedFloorsAllocation;
+import strategy.BestFitAllocation;
+import strategy.FirstFreeAllocation;
+import strategy.NearestExitAllocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Each allocation strategy on the same busy day: a mixed stream of cars, SUVs, motorcycles
+ * and handicapped vehicles filling the lot, then arriving and leaving at random around 95% occupancy.
+ * Reports park + exit throughput, then what the policy is for:
+ *   SUVs turned away   (best-fit keeps regular bays free of small vehicles)
+ *   walk to exit       (floors * 50 + bay index of every bay handed out, averaged; nearest-to-exit)
+ *   floor spread       (busiest minus emptiest floor when the lot is half full, in occupancy points;
+ *                       balance-across-floors)
+ *
+ * Run: java bench.AllocationBenchmark [spots] [floors] [operations]
+ */
+public class AllocationBenchmark {
+
+    public static void main(String[] args) {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int floorCount = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+
+        AllocationStrategy[] strategies = {
+                new FirstFreeAllocation(), new BestFitAllocation(),
+                new NearestExitAllocation(), new BalancedFloorsAllocation()
+        };
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            System.out.printf("%-26s %14s %12s %14s %13s%n", "strategy", "park+exit/s", "SUVs refused", "walk to exit", "floor spread");
+            for (AllocationStrategy s : strategies) run(s, spots, floorCount, operations);
+            System.out.println();
+        }
+    }
+
+    private static void run(AllocationStrategy strategy, int spots, int floorCount, int operations) {
+        ParkingService parking = new ParkingService(Layouts.floors(floorCount, spots));
+        parking.setAllocationStrategy(strategy);
+        Random rnd = new Random(7);
+        List<String> inside = new ArrayList<>();
+        int target = spots * 95 / 100;
+        int suvRefused = 0;
+        int seq = 0;
+        long walk = 0;
+        int parks = 0;
+        double spread = -1;
+
+        long t0 = System.nanoTime();
+        for (int op = 0; op < operations; op++) {
+            // arrivals outnumber departures below the target occupancy, and the other way round above it
+            boolean arrive = inside.isEmpty() || rnd.nextInt(100) < (inside.size() < target ? 60 : 40);
+            if (arrive) {
+                Vehicle v = arrival(rnd.nextInt(100), "A" + seq++);
+                ParkingService.ParkAttempt attempt = parking.tryParkVehicle(v);
+                if (attempt.isSuccess()) {
+                    inside.add(v.getPlateNumber());
+                    ParkingSpot spot = attempt.ticket.getSpot();
+                    walk += (spot.getFloor().getFloorNumber() - 1) * 50L + spot.getIndexInFloor();
+                    parks++;
+                    if (spread < 0 && inside.size() == spots / 2) spread = floorSpread(parking);
+                } else if (v instanceof SUV) {
+                    suvRefused++;
+                }
+            } else {
+                int i = rnd.nextInt(inside.size());
+                String plate = inside.get(i);
+                inside.set(i, inside.get(inside.size() - 1));
+                inside.remove(inside.size() - 1);
+                parking.exitVehicle(plate);
+            }
+        }
+        long elapsed = System.nanoTime() - t0;
+
+        System.out.printf("%-26s %,14.0f %,12d %14.0f %12.1f%%%n", strategy.getClass().getSimpleName(),
+                operations * 1e9 / elapsed, suvRefused, (double) walk / parks, spread);
+    }
+
+    // 40% cars, 40% SUVs, 15% motorcycles, 5% handicapped: SUVs need the regular bays small vehicles also fit
+    private static Vehicle arrival(int roll, String plate) {
+        if (roll < 40) return new Car(plate);
+        if (roll < 80) return new SUV(plate);
+        if (roll < 95) return new Motorcycle(plate);
+        return new HandicappedVehicle(plate);
+    }
+
+    private static double floorSpread(ParkingService parking) {
+        double min = 100, max = 0;
+        for (Floor floor : parking.getFloors()) {
+            int occupied = 0;
+            for (SpotType type : SpotType.values()) occupied += floor.getOccupiedCount(type);
+            double pct = occupied * 100.0 / floor.getTotalCount();
+            min = Math.min(min, pct);
+            max = Math.max(max, pct);
+        }
+        return max - min;
+    }
+}
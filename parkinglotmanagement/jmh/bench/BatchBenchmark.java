@@ -0,0 +1,72 @@
+package bench;
+
+import model.Car;
+import model.Vehicle;
+import persistence.ParkingJournal;
+import service.ParkingService;
+import service.PaymentService;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Batch vs single-call entry/exit throughput, with the journal switched on,
+ * for a range of ANPR burst sizes. Each round parks a burst of cars and exits them again.
+ *
+ * Run: java bench.BatchBenchmark [spots] [vehiclesPerRun]
+ */
+public class BatchBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int total = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        System.out.printf("%8s %16s %16s%n", "burst", "single ops/s", "batch ops/s");
+        for (int burst : new int[]{1, 16, 64, 256, 1024}) {
+            double single = run(spots, total, burst, false);
+            double batch = run(spots, total, burst, true);
+            System.out.printf("%8d %,16.0f %,16.0f%n", burst, single, batch);
+        }
+    }
+
+    private static double run(int spots, int total, int burst, boolean batched) throws IOException {
+        Path dir = Files.createTempDirectory("batch-bench");
+        try {
+            ParkingService parking = new ParkingService(Layouts.floors(40, spots));
+            ParkingJournal journal = ParkingJournal.open(dir, parking, new PaymentService(), 5);
+
+            int rounds = total / burst;
+            long seq = 0;
+            long t0 = System.nanoTime();
+            for (int r = 0; r < rounds; r++) {
+                List<Vehicle> cars = new ArrayList<>(burst);
+                List<String> plates = new ArrayList<>(burst);
+                for (int i = 0; i < burst; i++) {
+                    String plate = "C" + (seq++);
+                    cars.add(new Car(plate));
+                    plates.add(plate);
+                }
+                if (batched) {
+                    parking.parkVehicles(cars);
+                    parking.exitVehicles(plates);
+                } else {
+                    for (Vehicle v : cars) parking.parkVehicle(v);
+                    for (String p : plates) parking.exitVehicle(p);
+                }
+            }
+            journal.sync();
+            long elapsed = System.nanoTime() - t0;
+            journal.close();
+            // park + exit per vehicle
+            return rounds * burst * 2 * 1e9 / elapsed;
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package bench;
+
+import model.*;
+import service.ParkingService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress run for many gate terminals hitting one ParkingService.
+ * Each thread parks and exits its own plates in a loop while every spot
+ * handed out is claimed in a shared map; a second claim on the same spot
+ * means double allocation and fails the run.
+ *
+ * Run: java bench.ConcurrentGateStress [spots] [opsPerThread]
+ */
+public class ConcurrentGateStress {
+
+    public static void main(String[] args) throws Exception {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+
+        System.out.println("spots=" + spots + " opsPerThread=" + opsPerThread);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            run(spots, threads, opsPerThread);
+        }
+    }
+
+    private static void run(int spotCount, int threads, int opsPerThread) throws Exception {
+        ParkingService service = new ParkingService(Layouts.floors(4, spotCount));
+        ConcurrentHashMap<ParkingSpot, String> holders = new ConcurrentHashMap<>();
+        AtomicLong doubleAllocations = new AtomicLong();
+        AtomicLong parked = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> gates = new ArrayList<>();
+
+        for (int g = 0; g < threads; g++) {
+            final int gate = g;
+            gates.add(pool.submit(() -> {
+                start.await();
+                // a few cars in the lot at once per gate, so gates genuinely compete for spots
+                String[] inLot = new String[8];
+                for (int i = 0; i < opsPerThread; i++) {
+                    int slot = i % inLot.length;
+                    if (inLot[slot] != null) {
+                        holders.remove(service.getActiveTicket(inLot[slot]).getSpot());
+                        service.exitVehicle(inLot[slot]);
+                        inLot[slot] = null;
+                    }
+                    String plate = "G" + gate + "-" + i;
+                    Vehicle v = (i % 3 == 0) ? new SUV(plate) : new Car(plate);
+                    try {
+                        Ticket t = service.parkVehicle(v);
+                        if (holders.putIfAbsent(t.getSpot(), plate) != null
+                                || t.getSpot().getCurrentVehicle() != v) {
+                            doubleAllocations.incrementAndGet();
+                        }
+                        inLot[slot] = plate;
+                        parked.incrementAndGet();
+                    } catch (IllegalStateException full) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : gates) f.get();
+        long elapsed = System.nanoTime() - t0;
+        pool.shutdown();
+
+        long occupied = service.getFloors().stream()
+                .flatMap(f -> f.getSpots().stream())
+                .filter(s -> !s.isAvailable()).count();
+        boolean consistent = occupied == service.getActiveTickets().size();
+
+        System.out.printf("threads=%2d  ops/s=%,12.0f  parked=%,d  rejected=%,d  doubleAllocations=%d  consistent=%s%n",
+                threads, parked.get() * 1e9 / elapsed, parked.get(), rejected.get(),
+                doubleAllocations.get(), consistent);
+
+        if (doubleAllocations.get() > 0 || !consistent) {
+            throw new IllegalStateException("Concurrency check failed with " + threads + " threads");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package bench;
+
+import event.EventBus;
+import event.EventHandler;
+import event.ParkingEvent;
+import model.Car;
+import model.Fine;
+import model.Payment;
+import model.Ticket;
+import service.ParkingService;
+import service.StateJournal;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Park + exit throughput with consumers attached in two ways: called inline on the gate
+ * thread (through the StateJournal hook) or fed through the EventBus on their own threads.
+ * The consumers are an occupancy counter, a cheap audit counter and a slow "dashboard"
+ * that stalls for 50 us every 100 events.
+ *
+ * Run: java bench.EventBusBenchmark [spots] [vehicles]
+ */
+public class EventBusBenchmark {
+
+    public static void main(String[] args) {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int vehicles = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            System.out.printf("%-36s %14s%n", "consumers", "park+exit/s");
+            report("none", run(spots, vehicles, Mode.NONE));
+            report("inline (gate thread)", run(spots, vehicles, Mode.INLINE));
+            report("event bus (3 subscriber threads)", run(spots, vehicles, Mode.BUS));
+            System.out.println();
+        }
+    }
+
+    private enum Mode { NONE, INLINE, BUS }
+
+    private static void report(String label, double opsPerSec) {
+        System.out.printf("%-36s %,14.0f%n", label, opsPerSec);
+    }
+
+    private static double run(int spots, int vehicles, Mode mode) {
+        ParkingService parking = new ParkingService(Layouts.floors(10, spots));
+        TypeHandler[] consumers = {new OccupancyCounter(), new AuditCounter(), new SlowDashboard()};
+        EventBus bus = new EventBus(8192);
+
+        if (mode == Mode.INLINE) {
+            parking.setJournal(inline(consumers));
+        } else if (mode == Mode.BUS) {
+            for (int i = 0; i < consumers.length; i++) bus.subscribe("bench-" + i, consumers[i]);
+            parking.setEventBus(bus);
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < vehicles; i++) {
+            String plate = "B" + i;
+            parking.parkVehicle(new Car(plate));
+            parking.exitVehicle(plate);
+        }
+        long elapsed = System.nanoTime() - t0;
+        bus.close();
+        return vehicles * 2 * 1e9 / elapsed;
+    }
+
+    // same consumers, driven synchronously from the service the way a journal is
+    private static StateJournal inline(TypeHandler[] consumers) {
+        return new StateJournal() {
+            public void vehicleParked(Ticket ticket) { dispatch(ParkingEvent.Type.VEHICLE_PARKED); }
+            public void vehicleExited(Ticket ticket) { dispatch(ParkingEvent.Type.VEHICLE_EXITED); }
+            public void fineIssued(Fine fine) { dispatch(ParkingEvent.Type.FINE_ISSUED); }
+            public void paymentRecorded(Payment payment, Fine paidFine) { dispatch(ParkingEvent.Type.PAYMENT_RECORDED); }
+
+            private void dispatch(ParkingEvent.Type type) {
+                for (TypeHandler h : consumers) h.on(type);
+            }
+        };
+    }
+
+    // lets the inline path feed the same consumers without a ring slot
+    private abstract static class TypeHandler implements EventHandler {
+        abstract void on(ParkingEvent.Type type);
+
+        @Override
+        public void onEvent(ParkingEvent event, long sequence, boolean endOfBatch) {
+            on(event.getType());
+        }
+    }
+
+    private static final class OccupancyCounter extends TypeHandler {
+        long occupied;
+
+        void on(ParkingEvent.Type type) {
+            if (type == ParkingEvent.Type.VEHICLE_PARKED) occupied++;
+            else if (type == ParkingEvent.Type.VEHICLE_EXITED) occupied--;
+        }
+    }
+
+    private static final class AuditCounter extends TypeHandler {
+        long events;
+
+        void on(ParkingEvent.Type type) {
+            events++;
+        }
+    }
+
+    private static final class SlowDashboard extends TypeHandler {
+        long seen;
+
+        void on(ParkingEvent.Type type) {
+            if (++seen % 100 == 0) LockSupport.parkNanos(50_000);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package bench;
+
+import model.Car;
+import model.Vehicle;
+import service.ParkingService;
+
+/**
+ * Rush hour at a lot that is 100% full: every entry is turned away and every exit names a
+ * plate that is not inside. Compares the throwing API (parkVehicle / exitVehicle, caught
+ * at the gate) with the status-returning one (tryParkVehicle / tryExitVehicle).
+ *
+ * Run: java bench.FullLotBenchmark [spots] [attempts]
+ */
+public class FullLotBenchmark {
+
+    public static void main(String[] args) {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        ParkingService parking = new ParkingService(Layouts.floors(10, spots));
+        Layouts.fill(parking, spots, "M");
+        Vehicle car = new Car("RUSH-1");
+
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            long t0 = System.nanoTime();
+            int refused = 0;
+            for (int i = 0; i < attempts; i++) {
+                try {
+                    parking.parkVehicle(car);
+                } catch (IllegalStateException e) {
+                    refused++;
+                }
+            }
+            report("parkVehicle, throws", attempts, System.nanoTime() - t0, refused);
+
+            t0 = System.nanoTime();
+            refused = 0;
+            for (int i = 0; i < attempts; i++) {
+                if (!parking.tryParkVehicle(car).isSuccess()) refused++;
+            }
+            report("tryParkVehicle, status", attempts, System.nanoTime() - t0, refused);
+
+            t0 = System.nanoTime();
+            refused = 0;
+            for (int i = 0; i < attempts; i++) {
+                try {
+                    parking.exitVehicle("NOT-HERE");
+                } catch (IllegalStateException e) {
+                    refused++;
+                }
+            }
+            report("exitVehicle unknown plate, throws", attempts, System.nanoTime() - t0, refused);
+
+            t0 = System.nanoTime();
+            refused = 0;
+            for (int i = 0; i < attempts; i++) {
+                if (!parking.tryExitVehicle("NOT-HERE").isSuccess()) refused++;
+            }
+            report("tryExitVehicle unknown plate, status", attempts, System.nanoTime() - t0, refused);
+            System.out.println();
+        }
+    }
+
+    private static void report(String label, long ops, long nanos, int refused) {
+        System.out.printf("%-38s %,14.0f ops/s  (%,d refused)%n", label, ops * 1e9 / nanos, refused);
+    }
+}
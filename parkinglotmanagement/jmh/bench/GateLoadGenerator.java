@@ -0,0 +1,129 @@
+package bench;
+
+import server.GateServer;
+import service.AppContext;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Load generator for GateServer. Opens a set of idle gate connections that just sit there,
+ * then drives busy connections that each run PARK / EXIT / PAY cycles (plus an occasional REPORT)
+ * and records the round-trip time of every request.
+ *
+ * With port 0 it starts an in-memory server in this JVM on a large lot, so the run is self-contained.
+ *
+ * Run: java bench.GateLoadGenerator [port] [busyConnections] [requestsPerConnection] [idleConnections]
+ */
+public class GateLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int busy = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+        int idle = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+
+        GateServer embedded = null;
+        if (port == 0) {
+            embedded = new GateServer(new AppContext(null, Layouts.floors(10, 100_000)), 0);
+            embedded.start();
+            port = embedded.getPort();
+        }
+        int threadsBefore = Thread.activeCount();
+
+        List<Socket> idleGates = new ArrayList<>(idle);
+        for (int i = 0; i < idle; i++) idleGates.add(new Socket(InetAddress.getLoopbackAddress(), port));
+        Thread.sleep(200); // let the server pick them all up
+        if (embedded != null) {
+            System.out.printf("idle connections=%d  server-side threads added=%d%n",
+                    idle, Thread.activeCount() - threadsBefore);
+        }
+
+        // warm-up pass, discarded
+        run(port, busy, Math.min(requests, 1_000), "W");
+
+        long t0 = System.nanoTime();
+        long[] latencies = run(port, busy, requests, "L");
+        long elapsed = System.nanoTime() - t0;
+
+        Arrays.sort(latencies);
+        System.out.printf("busy=%d  requests=%,d  throughput=%,.0f req/s%n",
+                busy, latencies.length, latencies.length * 1e9 / elapsed);
+        System.out.printf("p50=%.1f us  p90=%.1f us  p99=%.1f us  p99.9=%.1f us  max=%.1f us%n",
+                pct(latencies, 0.50), pct(latencies, 0.90), pct(latencies, 0.99),
+                pct(latencies, 0.999), latencies[latencies.length - 1] / 1e3);
+
+        for (Socket s : idleGates) s.close();
+        if (embedded != null) embedded.close();
+    }
+
+    private static long[] run(int port, int busy, int requests, String prefix) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(busy);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> gates = new ArrayList<>();
+        for (int g = 0; g < busy; g++) {
+            final int gate = g;
+            gates.add(pool.submit(() -> drive(port, prefix + gate + "-", requests, start)));
+        }
+        start.countDown();
+
+        long[] all = new long[busy * requests];
+        int n = 0;
+        for (Future<long[]> f : gates) {
+            long[] l = f.get();
+            System.arraycopy(l, 0, all, n, l.length);
+            n += l.length;
+        }
+        pool.shutdown();
+        return all;
+    }
+
+    // one gate: PARK, EXIT, PAY per vehicle, plus a REPORT every 16th vehicle
+    private static long[] drive(int port, String platePrefix, int requests, CountDownLatch start) throws Exception {
+        long[] lat = new long[requests];
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            s.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII));
+            start.await();
+
+            int i = 0;
+            for (int car = 0; i < requests; car++) {
+                String plate = platePrefix + car;
+                String fee = "0";
+                for (int step = 0; step < 4 && i < requests; step++) {
+                    String request;
+                    if (step == 0) request = "PARK CAR " + plate;
+                    else if (step == 1) request = "EXIT " + plate;
+                    else if (step == 2) request = "PAY " + plate + " " + fee;
+                    else if (car % 16 == 0) request = "REPORT";
+                    else break;
+
+                    long t = System.nanoTime();
+                    out.write(request);
+                    out.write('\n');
+                    out.flush();
+                    String reply = in.readLine();
+                    lat[i++] = System.nanoTime() - t;
+
+                    if (reply == null) throw new IOException("Server closed the connection");
+                    if (!reply.startsWith("OK")) throw new IllegalStateException(request + " -> " + reply);
+                    if (step == 1) fee = reply.split(" ")[3];
+                }
+            }
+            out.write("QUIT\n");
+            out.flush();
+        }
+        return lat;
+    }
+
+    private static double pct(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, (long) (sorted.length * p))] / 1e3;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package bench;
+
+import history.HistoryStore;
+import model.Car;
+import model.Floor;
+import model.ParkingSpot;
+import model.Payment;
+import model.Ticket;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Feeds a month of synthetic traffic (busy days, quiet nights, stays of 30 min to 8 h)
+ * into a HistoryStore, then times two trend questions against it and against a plain
+ * scan of the raw tickets and payments: "peak occupancy last Tuesday" and
+ * "revenue by hour this month".
+ *
+ * Run: java bench.HistoryBenchmark [spots] [days]
+ */
+public class HistoryBenchmark {
+
+    public static void main(String[] args) {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int days = args.length > 1 ? Integer.parseInt(args[1]) : 31;
+
+        List<Floor> floors = Layouts.floors(5, spots);
+        LocalDateTime start = LocalDate.of(2024, 3, 1).atStartOfDay();
+        LocalDateTime end = start.plusDays(days);
+        HistoryStore history = new HistoryStore(floors, start);
+
+        List<Ticket> tickets = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        long t0 = System.nanoTime();
+        long events = simulate(floors, history, start, end, tickets, payments);
+        long feedNanos = System.nanoTime() - t0;
+        System.out.printf("fed %,d events over %d days in %.0f ms (%.0f ns/event)%n%n",
+                events, days, feedNanos / 1e6, (double) feedNanos / events);
+
+        LocalDate tuesday = end.toLocalDate().minusDays(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.TUESDAY));
+        LocalDateTime tueFrom = tuesday.atStartOfDay(), tueTo = tuesday.plusDays(1).atStartOfDay();
+        LocalDateTime monthFrom = end.minusDays(1).toLocalDate().withDayOfMonth(1).atStartOfDay();
+
+        System.out.printf("%-40s %12s %14s%n", "query", "answer", "us/query");
+        time("peak last Tuesday (history store)", () -> history.peakOccupancy(tueFrom, tueTo));
+        time("peak last Tuesday (scan tickets)", () -> scanPeak(tickets, tueFrom, tueTo));
+        time("revenue by hour this month (history)", () -> {
+            HistoryStore.Series s = history.query(HistoryStore.Resolution.HOUR, monthFrom, end, null, null);
+            long cents = 0;
+            for (int i = 0; i < s.size; i++) cents += s.feeCents[i] + s.fineCents[i];
+            return cents;
+        });
+        time("revenue by hour this month (scan)", () -> scanRevenue(payments, monthFrom, end));
+    }
+
+    private static long simulate(List<Floor> floors, HistoryStore history, LocalDateTime start, LocalDateTime end,
+                                 List<Ticket> tickets, List<Payment> payments) {
+        Random rnd = new Random(42);
+        List<ParkingSpot> shuffled = new ArrayList<>();
+        for (Floor f : floors) shuffled.addAll(f.getSpots());
+        Collections.shuffle(shuffled, rnd);
+        ArrayDeque<ParkingSpot> free = new ArrayDeque<>(shuffled);
+        PriorityQueue<Ticket> leaving = new PriorityQueue<>((a, b) -> a.getExitTime().compareTo(b.getExitTime()));
+
+        long events = 0;
+        int plate = 0;
+        for (LocalDateTime minute = start; minute.isBefore(end); minute = minute.plusMinutes(1)) {
+            LocalDateTime next = minute.plusMinutes(1);
+            while (!leaving.isEmpty() && leaving.peek().getExitTime().isBefore(next)) {
+                Ticket t = leaving.poll();
+                history.recordExit(t);
+                double hours = Math.max(1, Math.ceil(Duration.between(t.getEntryTime(), t.getExitTime()).toMinutes() / 60.0));
+                Payment p = new Payment("P" + plate, t.getVehicle().getPlateNumber(), hours * 5.0,
+                        rnd.nextInt(20) == 0 ? 50.0 : 0.0, t.getExitTime());
+                history.recordPayment(p);
+                payments.add(p);
+                free.push(t.getSpot());
+                events += 2;
+            }
+
+            // busy 7:00-19:00, a trickle at night
+            int hour = minute.getHour();
+            double perMinute = (hour >= 7 && hour < 19 ? 0.004 : 0.0005) * free.size() / 4 + 0.5;
+            int arrivals = (int) perMinute + (rnd.nextDouble() < perMinute % 1 ? 1 : 0);
+            for (int i = 0; i < arrivals && !free.isEmpty(); i++) {
+                LocalDateTime in = minute.plusSeconds(rnd.nextInt(60));
+                Ticket t = new Ticket("T" + plate, new Car("H" + plate++), free.pop(), in);
+                history.recordEntry(t);
+                t.close(in.plusMinutes(30 + rnd.nextInt(450)));
+                leaving.add(t);
+                tickets.add(t);
+                events++;
+            }
+        }
+        return events;
+    }
+
+    // baseline: sweep every ticket overlapping the window, +1 at entry and -1 at exit
+    private static long scanPeak(List<Ticket> tickets, LocalDateTime from, LocalDateTime to) {
+        List<long[]> deltas = new ArrayList<>();
+        int open = 0;
+        for (Ticket t : tickets) {
+            if (!t.getEntryTime().isBefore(to) || t.getExitTime().isBefore(from)) continue;
+            if (t.getEntryTime().isBefore(from)) open++;
+            else deltas.add(new long[]{t.getEntryTime().toLocalTime().toNanoOfDay(), 1});
+            if (t.getExitTime().isBefore(to)) deltas.add(new long[]{t.getExitTime().toLocalTime().toNanoOfDay(), -1});
+        }
+        deltas.sort((a, b) -> Long.compare(a[0], b[0]));
+        long peak = open;
+        for (long[] d : deltas) peak = Math.max(peak, open += d[1]);
+        return peak;
+    }
+
+    private static long scanRevenue(List<Payment> payments, LocalDateTime from, LocalDateTime to) {
+        long[] byHour = new long[(int) Duration.between(from, to).toHours() + 1];
+        for (Payment p : payments) {
+            if (p.getPaidAt().isBefore(from) || !p.getPaidAt().isBefore(to)) continue;
+            byHour[(int) Duration.between(from, p.getPaidAt()).toHours()] += Math.round(p.getTotalAmount() * 100);
+        }
+        long cents = 0;
+        for (long c : byHour) cents += c;
+        return cents;
+    }
+
+    private interface Query {
+        long run();
+    }
+
+    private static void time(String label, Query q) {
+        long answer = 0;
+        for (int i = 0; i < 200; i++) answer = q.run(); // warm-up
+        int runs = 1_000;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < runs; i++) answer += q.run() - answer;
+        double micros = (System.nanoTime() - t0) / 1e3 / runs;
+        System.out.printf("%-40s %,12d %,14.1f%n", label, answer, micros);
+    }
+}
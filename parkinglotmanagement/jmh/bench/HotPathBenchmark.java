@@ -0,0 +1,156 @@
+package bench;
+
+import model.Car;
+import model.Motorcycle;
+import model.Ticket;
+import model.Vehicle;
+import org.openjdk.jmh.annotations.*;
+import service.ParkingService;
+import service.PaymentService;
+import service.ReportService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the park / exit / payment / report hot paths.
+ * Every combination of lot size, occupancy and payment history gets a fresh lot per fork.
+ *
+ * Build and run (from the directory with pom.xml):
+ *   mvn -Pjmh package
+ *   java -jar target/benchmarks.jar HotPath
+ *   java -jar target/benchmarks.jar HotPath.parkVehicle -p size=100000 -p occupancy=0.9
+ *
+ * parkVehicle and exitVehicle change the lot, so each call is undone (or prepared) outside
+ * the timed region by a per-invocation fixture; the JMH timestamps around each call cost
+ * a few tens of ns, small next to the microsecond the calls themselves take.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class HotPathBenchmark {
+
+    /** One lot, filled to the requested occupancy and with the requested history of exits and payments. */
+    @State(Scope.Thread)
+    public static class Lot {
+        @Param({"10", "10000", "100000"})
+        public int size;
+
+        @Param({"0", "0.5", "0.9"})
+        public double occupancy;
+
+        @Param({"0", "100000"})
+        public int history;
+
+        ParkingService parking;
+        PaymentService payments;
+        ReportService reports;
+        private long plateSeq;
+
+        @Setup(Level.Trial)
+        public void build() {
+            parking = new ParkingService(Layouts.floors(Math.max(1, size / 2500), size));
+            payments = new PaymentService();
+            payments.setFineLedger(parking.getFineLedger());
+            reports = new ReportService(parking, payments);
+
+            // history: park/exit cycles, every 10th one overstayed so fines (half of them unpaid) build up too
+            for (int i = 0; i < history; i++) {
+                String plate = nextPlate();
+                parking.parkVehicle(i % 10 == 0 ? overstayed(plate) : new Motorcycle(plate));
+                ParkingService.ExitResult r = parking.exitVehicle(plate);
+                payments.recordPayment(plate, r.parkingFee, i % 20 == 0 ? r.fine : null);
+            }
+            Layouts.fill(parking, (int) (size * occupancy), "F");
+        }
+
+        String nextPlate() {
+            return "B" + (plateSeq++);
+        }
+    }
+
+    // The per-call fixtures extend Lot rather than taking it as a fixture argument, so they
+    // are guaranteed to act on the same lot the benchmark method measures.
+
+    /** A fresh car for each parkVehicle call, let out again afterwards so occupancy stays put. */
+    @State(Scope.Thread)
+    public static class ArrivalLot extends Lot {
+        Vehicle car;
+        Ticket ticket; // null when the lot had no room
+
+        @Setup(Level.Invocation)
+        public void arrive() {
+            car = new Car(nextPlate());
+            ticket = null;
+        }
+
+        @TearDown(Level.Invocation)
+        public void leave() {
+            if (ticket != null) parking.exitVehicle(car.getPlateNumber());
+            ticket = null;
+        }
+    }
+
+    /** A motorcycle parked before each exitVehicle call; null plate when the lot had no room. */
+    @State(Scope.Thread)
+    public static class ParkedLot extends Lot {
+        String plate;
+
+        @Setup(Level.Invocation)
+        public void park() {
+            String p = nextPlate();
+            plate = parking.tryParkVehicle(new Motorcycle(p)).isSuccess() ? p : null;
+        }
+    }
+
+    @Benchmark
+    public Ticket parkVehicle(ArrivalLot lot) {
+        lot.ticket = lot.parking.tryParkVehicle(lot.car).ticket;
+        return lot.ticket;
+    }
+
+    @Benchmark
+    public ParkingService.ExitResult exitVehicle(ParkedLot lot) {
+        return lot.plate == null ? null : lot.parking.exitVehicle(lot.plate);
+    }
+
+    @Benchmark
+    public int getAllSpots(Lot lot) {
+        return lot.reports.getAllSpots().size();
+    }
+
+    @Benchmark
+    public int getCurrentlyParkedTickets(Lot lot) {
+        return lot.reports.getCurrentlyParkedTickets().size();
+    }
+
+    @Benchmark
+    public int getOccupancySummary(Lot lot) {
+        return lot.reports.getOccupancySummary().occupied;
+    }
+
+    @Benchmark
+    public double getRevenueSummary(Lot lot) {
+        return lot.reports.getRevenueSummary().totalRevenue;
+    }
+
+    @Benchmark
+    public int getOutstandingFines(Lot lot) {
+        return lot.reports.getOutstandingFines().size();
+    }
+
+    // grows the payment history the revenue report reads, as a live lot does
+    @Benchmark
+    public Object recordPayment(Lot lot) {
+        return lot.payments.recordPayment("PAY", 5.0, null);
+    }
+
+    /** A car whose entry time is 30 hours ago, so its exit issues a fine. */
+    private static Vehicle overstayed(String plate) {
+        return new Car(plate) {
+            { entryTime = LocalDateTime.now().minusHours(30); }
+        };
+    }
+}
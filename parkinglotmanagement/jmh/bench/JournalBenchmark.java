@@ -0,0 +1,78 @@
+package bench;
+
+import model.Motorcycle;
+import persistence.ParkingJournal;
+import service.ParkingService;
+import service.PaymentService;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Journal write throughput and crash-recovery time at millions of events.
+ * Each park/exit/pay cycle journals three events (PARK, EXIT, PAYMENT).
+ *
+ * Run: java bench.JournalBenchmark [events] [spots]
+ */
+public class JournalBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        int spots = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        Path dir = Files.createTempDirectory("journal-bench");
+
+        try {
+            ParkingService parking = new ParkingService(Layouts.floors(40, spots));
+            PaymentService payments = new PaymentService();
+            ParkingJournal journal = ParkingJournal.open(dir, parking, payments, 5);
+
+            int cycles = events / 3;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < cycles; i++) {
+                String plate = "J" + i;
+                parking.parkVehicle(new Motorcycle(plate));
+                ParkingService.ExitResult r = parking.exitVehicle(plate);
+                payments.recordPayment(plate, r.parkingFee, null);
+            }
+            // leave half the lot occupied so recovery has live tickets to rebuild too
+            for (int i = 0; i < spots / 2; i++) {
+                parking.parkVehicle(new Motorcycle("L" + i));
+            }
+            journal.sync();
+            double writeSecs = (System.nanoTime() - t0) / 1e9;
+            journal.close();
+
+            long written = cycles * 3L + spots / 2;
+            System.out.printf("journaled %,d events in %.2f s = %,.0f events/s (journal %,d bytes)%n",
+                    written, writeSecs, written / writeSecs, folderSize(dir));
+
+            // crash recovery: snapshot + full journal tail
+            recover(dir, spots, "recovery from journal tail");
+            // second start: the journal has been folded into the snapshot and payments.log
+            recover(dir, spots, "recovery from snapshot   ");
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static void recover(Path dir, int spots, String label) throws IOException {
+        ParkingService parking = new ParkingService(Layouts.floors(40, spots));
+        PaymentService payments = new PaymentService();
+        long t0 = System.nanoTime();
+        ParkingJournal journal = ParkingJournal.open(dir, parking, payments, 5);
+        double secs = (System.nanoTime() - t0) / 1e9;
+        journal.close();
+        System.out.printf("%s: %.2f s (%,d payments, %,d parked)%n",
+                label, secs, payments.getPayments().size(), parking.getActiveTickets().size());
+    }
+
+    private static long folderSize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package bench;
+
+import model.Floor;
+import persistence.LayoutFile;
+import service.ParkingService;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Startup cost of a large lot: writes the same layout as a text file with one line per bay,
+ * as a text file of repeat lines and as a binary file, then times loading each one and building a
+ * ParkingService over the result.
+ *
+ * Run: java bench.LayoutBenchmark [spots] [floors]
+ */
+public class LayoutBenchmark {
+
+    private static final String[] PATTERN = {
+            "COMPACT", "REGULAR", "REGULAR", "HANDICAPPED", "REGULAR",
+            "COMPACT", "REGULAR", "RESERVED", "REGULAR", "RESERVED"
+    };
+
+    public static void main(String[] args) throws IOException {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int floorCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        Path dir = Files.createTempDirectory("layout-bench");
+        Path perBay = dir.resolve("per-bay.layout");
+        Path repeat = dir.resolve("repeat.layout");
+        Path binary = dir.resolve("lot.bin");
+
+        try (Writer out = Files.newBufferedWriter(perBay, StandardCharsets.US_ASCII)) {
+            int perFloor = spots / floorCount;
+            for (int f = 1; f <= floorCount; f++) {
+                out.write("floor " + f + "\n");
+                for (int i = 0; i < perFloor; i++) out.write(PATTERN[i % PATTERN.length] + " 1\n");
+            }
+        }
+        try (Writer out = Files.newBufferedWriter(repeat, StandardCharsets.US_ASCII)) {
+            for (int f = 1; f <= floorCount; f++) {
+                out.write("floor " + f + "\n");
+                out.write("repeat " + spots / floorCount / PATTERN.length + " " + String.join(" ", PATTERN) + "\n");
+            }
+        }
+        List<Floor> floors = LayoutFile.read(perBay);
+        LayoutFile.writeBinary(binary, floors);
+
+        for (int round = 0; round < 3; round++) { // first rounds are warm-up
+            System.out.printf("%-22s %12s %10s %14s%n", "file", "size", "load ms", "+service ms");
+            time("text, line per bay", perBay);
+            time("text, repeat lines", repeat);
+            time("binary, mapped", binary);
+            System.out.println();
+        }
+
+        Files.delete(perBay);
+        Files.delete(repeat);
+        Files.delete(binary);
+        Files.delete(dir);
+    }
+
+    private static void time(String label, Path file) throws IOException {
+        long t0 = System.nanoTime();
+        List<Floor> floors = LayoutFile.read(file);
+        long loaded = System.nanoTime();
+        ParkingService parking = new ParkingService(floors);
+        long built = System.nanoTime();
+        if (parking.getAllSpots().size() == 0) throw new IllegalStateException("empty layout");
+        System.out.printf("%-22s %,12d %10.1f %14.1f%n", label, Files.size(file),
+                (loaded - t0) / 1e6, (built - t0) / 1e6);
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+
+import model.Car;
+import model.Floor;
+import model.HandicappedVehicle;
+import model.PackedFloor;
+import model.ParkingSpot;
+import model.SUV;
+import model.SpotType;
+import model.Vehicle;
+import service.ParkingService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic lots for the benchmarks. Each floor repeats a ten-bay pattern
+ * (2 compact, 5 regular, 1 handicapped, 2 reserved), roughly the mix of the default lot.
+ */
+public class Layouts {
+
+    private static final SpotType[] PATTERN = {
+            SpotType.COMPACT, SpotType.REGULAR, SpotType.REGULAR, SpotType.HANDICAPPED, SpotType.REGULAR,
+            SpotType.COMPACT, SpotType.REGULAR, SpotType.RESERVED, SpotType.REGULAR, SpotType.RESERVED
+    };
+
+    public static List<Floor> floors(int floorCount, int totalSpots) {
+        List<Floor> floors = new ArrayList<>();
+        int perFloor = (totalSpots + floorCount - 1) / floorCount;
+        int made = 0;
+        for (int f = 1; f <= floorCount && made < totalSpots; f++) {
+            Floor floor = new Floor(f);
+            for (int i = 0; i < perFloor && made < totalSpots; i++, made++) {
+                SpotType type = PATTERN[i % PATTERN.length];
+                floor.addSpot(new ParkingSpot("F" + f + "-" + type.name().charAt(0) + (i + 1), type));
+            }
+            floors.add(floor);
+        }
+        return floors;
+    }
+
+    /**
+     * Parks count vehicles into the first free bays in floor order, each one a vehicle class
+     * that fits its bay (car, SUV for reserved, handicapped), so a lot can be filled to 100%.
+     * Assumes the default first-free allocation.
+     */
+    public static void fill(ParkingService parking, int count, String platePrefix) {
+        List<ParkingSpot> spots = parking.getAllSpots();
+        int cursor = 0;
+        for (int i = 0; i < count; i++) {
+            while (!spots.get(cursor).isAvailable()) cursor++;
+            parking.parkVehicle(vehicleFor(spots.get(cursor).getType(), platePrefix + i));
+        }
+    }
+
+    private static Vehicle vehicleFor(SpotType type, String plate) {
+        switch (type) {
+            case RESERVED:    return new SUV(plate);
+            case HANDICAPPED: return new HandicappedVehicle(plate);
+            default:          return new Car(plate);
+        }
+    }
+
+    /** Same lot as floors(), stored as PackedFloors; spot IDs come out identical. */
+    public static List<Floor> packedFloors(int floorCount, int totalSpots) {
+        List<Floor> floors = new ArrayList<>();
+        int perFloor = (totalSpots + floorCount - 1) / floorCount;
+        int made = 0;
+        for (int f = 1; f <= floorCount && made < totalSpots; f++) {
+            byte[] types = new byte[Math.min(perFloor, totalSpots - made)];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = (byte) PATTERN[i % PATTERN.length].ordinal();
+            }
+            made += types.length;
+            floors.add(new PackedFloor(f, types));
+        }
+        return floors;
+    }
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import model.Car;
+import service.ParkingService;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pay-station polling: quoteExit throughput when every poll falls in the same billed hour
+ * (cache hits) and when each poll is an hour later than the last (always priced afresh),
+ * then gate park + exit throughput alone and with kiosk threads polling the whole time.
+ *
+ * Run: java bench.QuoteBenchmark [parked] [kiosks]
+ */
+public class QuoteBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int parked = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int kiosks = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        ParkingService parking = new ParkingService(Layouts.floors(10, parked * 2));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < parked; i++) parking.parkVehicle(new Car("K" + i, now.minusMinutes(i % 3000)));
+
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            int polls = 2_000_000;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < polls; i++) parking.quoteExit("K" + (i % parked), now);
+            report("quoteExit, same hour (cached)", polls, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (int i = 0; i < polls; i++) parking.quoteExit("K" + (i % parked), now.plusHours(i / parked + 1 + round * 100));
+            report("quoteExit, new hour every poll", polls, System.nanoTime() - t0);
+
+            report("gate park+exit, no kiosks", 200_000, gates(parking, 100_000, 0));
+            report("gate park+exit, " + kiosks + " kiosks polling", 200_000, gates(parking, 100_000, kiosks));
+            System.out.println();
+        }
+    }
+
+    private static long gates(ParkingService parking, int cycles, int kiosks) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder polls = new LongAdder();
+        Thread[] threads = new Thread[kiosks];
+        for (int k = 0; k < kiosks; k++) {
+            int offset = k * 7919;
+            threads[k] = new Thread(() -> {
+                int parked = parking.getActiveTicketCount();
+                for (int i = offset; running.get(); i++) {
+                    parking.quoteExit("K" + (i % parked), LocalDateTime.now());
+                    polls.increment();
+                }
+            });
+            threads[k].start();
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < cycles; i++) {
+            String plate = "G" + i;
+            parking.parkVehicle(new Car(plate));
+            parking.exitVehicle(plate);
+        }
+        long elapsed = System.nanoTime() - t0;
+        running.set(false);
+        for (Thread t : threads) t.join();
+        if (kiosks > 0) report("  (kiosk quotes meanwhile)", polls.sum(), elapsed);
+        return elapsed;
+    }
+
+    private static void report(String label, long ops, long nanos) {
+        System.out.printf("%-38s %,14.0f ops/s%n", label, ops * 1e9 / nanos);
+    }
+}
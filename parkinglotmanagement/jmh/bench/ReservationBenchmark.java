@@ -0,0 +1,79 @@
+package bench;
+
+import model.Car;
+import model.Reservation;
+import model.SUV;
+import service.ParkingService;
+import service.ReservationBook;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reservation book under load: booking and window queries with thousands of bookings per
+ * bay, then gate park + exit throughput with no bookings and with every reserved bay held,
+ * to show allocation does not slow down as the book grows.
+ *
+ * Run: java bench.ReservationBenchmark [spots] [bookingsPerBay]
+ */
+public class ReservationBenchmark {
+
+    public static void main(String[] args) {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int perBay = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            ParkingService parking = new ParkingService(Layouts.floors(10, spots));
+            ReservationBook book = parking.getReservations();
+            LocalDateTime base = LocalDateTime.now().plusDays(1);
+
+            // each plate books the next free bay for a 2-hour slot; slots start every 3 hours, leaving gaps to find
+            List<String> bayIds = new ArrayList<>();
+            int bays = spots / 5; // two reserved bays in every ten
+            int bookings = bays * perBay;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < bookings; i++) {
+                LocalDateTime from = base.plusHours(3L * (i / bays));
+                Reservation r = book.book("B" + i, from, from.plusHours(2));
+                if (i < bays) bayIds.add(r.getSpot().getSpotId());
+            }
+            report("book, " + perBay + " per bay", bookings, System.nanoTime() - t0);
+
+            Random rnd = new Random(42);
+            int queries = 1_000_000;
+            int hits = 0;
+            t0 = System.nanoTime();
+            for (int i = 0; i < queries; i++) {
+                LocalDateTime from = base.plusMinutes(rnd.nextInt(perBay * 180));
+                if (book.isFree(bayIds.get(rnd.nextInt(bays)), from, from.plusMinutes(30))) hits++;
+            }
+            report("isFree (" + hits + " free)", queries, System.nanoTime() - t0);
+
+            report("gate park+exit, " + bookings + " future bookings", 200_000, gates(parking, 100_000));
+
+            // now hold every reserved bay: walk-in SUVs must skip them all
+            ParkingService held = new ParkingService(Layouts.floors(10, spots));
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < bays; i++) held.getReservations().book("H" + i, now.plusMinutes(30), now.plusHours(3));
+            report("gate park+exit, every reserved bay held", 200_000, gates(held, 100_000));
+            System.out.println("  SUV spots free to walk-ins: " + held.getFreeCount(new SUV("X")));
+            System.out.println();
+        }
+    }
+
+    private static long gates(ParkingService parking, int cycles) {
+        long t0 = System.nanoTime();
+        for (int i = 0; i < cycles; i++) {
+            String plate = "G" + i;
+            parking.parkVehicle((i & 1) == 0 ? new Car(plate) : new SUV(plate));
+            parking.exitVehicle(plate);
+        }
+        return System.nanoTime() - t0;
+    }
+
+    private static void report(String label, long ops, long nanos) {
+        System.out.printf("%-46s %,14.0f ops/s%n", label, ops * 1e9 / nanos);
+    }
+}
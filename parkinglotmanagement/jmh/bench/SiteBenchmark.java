@@ -0,0 +1,77 @@
+package bench;
+
+import model.Car;
+import site.SiteRouter;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Park + exit throughput through the SiteRouter as the estate grows from 1 to 8 sites,
+ * with the same total lot size and one client thread per site keeping 64 requests in flight.
+ * Then times the estate-wide queries (nearest site with room, occupancy totals) at 64 sites.
+ * Scaling needs cores: on a single core every row is bounded by the same CPU.
+ *
+ * Run: java bench.SiteBenchmark [totalSpots] [cyclesPerSite]
+ */
+public class SiteBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int totalSpots = args.length > 0 ? Integer.parseInt(args[0]) : 80_000;
+        int cycles = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.println("cores: " + Runtime.getRuntime().availableProcessors());
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            System.out.printf("%-8s %16s%n", "sites", "park+exit/s");
+            for (int sites = 1; sites <= 8; sites *= 2) {
+                System.out.printf("%-8d %,16.0f%n", sites, run(sites, totalSpots, cycles));
+            }
+            System.out.println();
+        }
+
+        try (SiteRouter router = estate(64, totalSpots * 8)) {
+            for (int i = 0; i < 64 * 500; i++) router.parkVehicle("S" + (i % 64), new Car("E" + i)).join();
+            int n = 2_000;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) router.findNearestFreeSite(i % 100, i % 37, new Car("X"));
+            System.out.printf("nearest free site, 64 sites:     %8.1f us%n", (System.nanoTime() - t0) / 1e3 / n);
+            t0 = System.nanoTime();
+            for (int i = 0; i < n / 10; i++) router.getEstateSummary();
+            System.out.printf("estate occupancy, 64 sites:      %8.1f us%n", (System.nanoTime() - t0) / 1e3 / (n / 10));
+        }
+    }
+
+    private static SiteRouter estate(int sites, int totalSpots) {
+        SiteRouter router = new SiteRouter(0);
+        for (int s = 0; s < sites; s++) {
+            router.addSite("S" + s, s * 3.0, (s * 7) % 11, Layouts.floors(4, totalSpots / sites));
+        }
+        return router;
+    }
+
+    private static double run(int sites, int totalSpots, int cycles) throws InterruptedException {
+        try (SiteRouter router = estate(sites, totalSpots)) {
+            int perSite = cycles / sites;
+            Thread[] clients = new Thread[sites];
+            for (int s = 0; s < sites; s++) {
+                String siteId = "S" + s;
+                clients[s] = new Thread(() -> {
+                    ArrayDeque<CompletableFuture<?>> inFlight = new ArrayDeque<>();
+                    for (int i = 0; i < perSite; i++) {
+                        String plate = siteId + "-" + i;
+                        inFlight.add(router.submit(siteId, site -> {
+                            site.getParkingService().parkVehicle(new Car(plate));
+                            return site.getParkingService().exitVehicle(plate);
+                        }));
+                        if (inFlight.size() == 64) inFlight.poll().join();
+                    }
+                    inFlight.forEach(CompletableFuture::join);
+                });
+            }
+            long t0 = System.nanoTime();
+            for (Thread t : clients) t.start();
+            for (Thread t : clients) t.join();
+            return perSite * sites * 2 * 1e9 / (System.nanoTime() - t0);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import model.Floor;
+import service.ParkingService;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Heap footprint and full-GC pause of a very large lot, object-per-spot Floors
+ * vs PackedFloors, at a given occupancy. Run each mode in its own JVM for clean numbers:
+ *
+ *   java -Xmx4g bench.SpotStoreBenchmark objects 2000000 0.5
+ *   java -Xmx4g bench.SpotStoreBenchmark packed  2000000 0.5
+ */
+public class SpotStoreBenchmark {
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "packed";
+        int spots = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        double occupancy = args.length > 2 ? Double.parseDouble(args[2]) : 0.5;
+        int parked = (int) (spots * occupancy);
+        int floorCount = Math.max(1, spots / 10_000);
+
+        long before = usedHeapAfterGc();
+        long t0 = System.nanoTime();
+        List<Floor> floors = "objects".equals(mode)
+                ? Layouts.floors(floorCount, spots)
+                : Layouts.packedFloors(floorCount, spots);
+        ParkingService service = new ParkingService(floors);
+        double buildMs = (System.nanoTime() - t0) / 1e6;
+
+        Layouts.fill(service, parked, "M");
+        long heap = usedHeapAfterGc() - before;
+
+        // timed full collections over the live lot
+        long gcMillis = 0;
+        int gcRuns = 5;
+        for (int i = 0; i < gcRuns; i++) {
+            long g0 = totalGcMillis();
+            System.gc();
+            gcMillis += totalGcMillis() - g0;
+        }
+
+        System.out.printf("%-8s spots=%,d occ=%.2f  build=%.0f ms  heap=%,d MB (%.1f bytes/spot incl. tickets)  full GC avg=%.1f ms%n",
+                mode, spots, occupancy, buildMs, heap >> 20, (double) heap / spots, (double) gcMillis / gcRuns);
+        if (service.getActiveTicketCount() != parked) throw new IllegalStateException("lot not filled");
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime rt = Runtime.getRuntime();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,109 @@
+package bench;
+
+import model.SpotType;
+import strategy.CompiledTariff;
+import strategy.FineStrategy;
+import strategy.FixedFineStrategy;
+import strategy.HourlyFineStrategy;
+import strategy.ProgressiveFineStrategy;
+import strategy.Tariff;
+
+import java.time.DayOfWeek;
+import java.util.Random;
+
+/**
+ * Fee + fine quotes per second: the old per-exit arithmetic, the compiled flat tariff, and a
+ * tariff with night, weekend and daily-cap pricing both walked hour by hour and compiled.
+ * Stays are random, 1 h to 4 days, over every SpotType and all three fine strategies.
+ * Before timing it checks that the compiled tables agree with the hour-by-hour walk.
+ *
+ * Run: java bench.TariffBenchmark [quotes]
+ */
+public class TariffBenchmark {
+
+    private static final SpotType[] TYPES = SpotType.values();
+    private static final FineStrategy[] FINES = {
+            new FixedFineStrategy(), new HourlyFineStrategy(), new ProgressiveFineStrategy()
+    };
+
+    public static void main(String[] args) {
+        int quotes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        Random rnd = new Random(7);
+        int n = 1 << 16;
+        int[] type = new int[n], startHour = new int[n], hours = new int[n], fine = new int[n];
+        for (int i = 0; i < n; i++) {
+            type[i] = rnd.nextInt(TYPES.length);
+            startHour[i] = rnd.nextInt(7 * 24);
+            hours[i] = 1 + rnd.nextInt(96);
+            fine[i] = rnd.nextInt(FINES.length);
+        }
+
+        Tariff rich = Tariff.flat()
+                .rate(SpotType.REGULAR, 5, 2, 3)
+                .rate(SpotType.COMPACT, 2, 1, 1.5)
+                .nightHours(22, 7)
+                .weekendDays(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)
+                .dailyCap(SpotType.REGULAR, 40)
+                .dailyCap(SpotType.RESERVED, 120);
+        CompiledTariff[] flat = new CompiledTariff[FINES.length], compiled = new CompiledTariff[FINES.length];
+        for (int f = 0; f < FINES.length; f++) {
+            flat[f] = Tariff.flat().fines(FINES[f]).compile();
+            compiled[f] = rich.compile().withFines(FINES[f]);
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < n; i++) {
+            SpotType t = TYPES[type[i]];
+            if (walk(rich, t, startHour[i], hours[i]) != compiled[0].fee(t, startHour[i], hours[i])) mismatches++;
+            if (hours[i] * t.getHourlyRate() != flat[0].fee(t, startHour[i], hours[i])) mismatches++;
+        }
+        System.out.println("compiled vs hour-by-hour mismatches: " + mismatches);
+
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            System.out.printf("%-32s %14s%n", "pricing", "quotes/s");
+            report("old: hours x rate + FineStrategy", time(quotes, i -> {
+                SpotType t = TYPES[type[i]];
+                return hours[i] * t.getHourlyRate() + FINES[fine[i]].calculateFine(hours[i]);
+            }));
+            report("compiled flat tariff", time(quotes, i ->
+                    flat[fine[i]].fee(TYPES[type[i]], startHour[i], hours[i]) + flat[fine[i]].fine(hours[i])));
+            report("rich tariff, hour by hour", time(quotes, i ->
+                    walk(rich, TYPES[type[i]], startHour[i], hours[i]) + FINES[fine[i]].calculateFine(hours[i])));
+            report("rich tariff, compiled", time(quotes, i ->
+                    compiled[fine[i]].fee(TYPES[type[i]], startHour[i], hours[i]) + compiled[fine[i]].fine(hours[i])));
+            System.out.println();
+        }
+    }
+
+    // the tariff's definition applied literally: every hour at its rate, each 24 hours capped
+    private static double walk(Tariff tariff, SpotType type, int startHour, long hours) {
+        double total = 0, day = 0;
+        double cap = tariff.getDailyCap(type);
+        for (long h = 0; h < hours; h++) {
+            if (h % 24 == 0) {
+                total += Math.min(cap, day);
+                day = 0;
+            }
+            day += tariff.rateAt(type, (int) ((startHour + h) % (7 * 24)));
+        }
+        return total + Math.min(cap, day);
+    }
+
+    private interface Quote {
+        double price(int i);
+    }
+
+    private static double time(int quotes, Quote q) {
+        double sink = 0;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < quotes; i++) sink += q.price(i & 0xFFFF);
+        long elapsed = System.nanoTime() - t0;
+        if (sink == -1) System.out.println(); // keep the loop alive
+        return quotes * 1e9 / elapsed;
+    }
+
+    private static void report(String label, double perSec) {
+        System.out.printf("%-32s %,14.0f%n", label, perSec);
+    }
+}
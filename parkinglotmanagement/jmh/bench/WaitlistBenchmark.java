@@ -0,0 +1,142 @@
+package bench;
+
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import model.Car;
+import model.HandicappedVehicle;
+import model.Motorcycle;
+import model.SUV;
+import model.Ticket;
+import model.Vehicle;
+import service.ParkingService;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Peak hour at a full lot. Arrival gates keep queueing a mix of cars, SUVs, motorcycles and
+ * handicapped vehicles while exit gates let parked vehicles out; every exit admits the
+ * longest-waiting vehicle that fits. Reports the exit+admit rate, time spent queued, and
+ * the longest wait per vehicle class, then checks no vehicle was lost or parked twice.
+ *
+ * For comparison, the cost of the old way: a gate retrying parkVehicle against the full lot.
+ *
+ * Run: java bench.WaitlistBenchmark [spots] [vehicles] [gateThreads]
+ */
+public class WaitlistBenchmark {
+
+    private static final String[] CLASSES = {"car", "suv", "motorcycle", "handicapped"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int spots = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int vehicles = args.length > 1 ? Integer.parseInt(args[1]) : 400_000;
+        int gates = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int queueLength = 1_000;
+
+        for (int round = 0; round < 2; round++) { // first round is warm-up
+            run(spots, vehicles, gates, queueLength);
+            retries(spots, 200_000);
+            System.out.println();
+        }
+    }
+
+    private static void run(int spots, int vehicles, int gates, int queueLength) throws InterruptedException {
+        ParkingService parking = new ParkingService(Layouts.floors(10, spots));
+        Metrics metrics = new Metrics();
+        parking.setMetrics(metrics);
+        Queue<String> parked = new ConcurrentLinkedQueue<>();
+        AtomicInteger arrived = new AtomicInteger();
+        AtomicInteger exited = new AtomicInteger();
+        long[] longestWait = new long[CLASSES.length];
+        AtomicLong admittedCount = new AtomicLong();
+
+        Thread[] arrivals = new Thread[gates];
+        for (int g = 0; g < gates; g++) {
+            arrivals[g] = new Thread(() -> {
+                for (int i; (i = arrived.getAndIncrement()) < vehicles; ) {
+                    // keep about queueLength vehicles waiting
+                    while (parking.getWaitlist().getDepth() > queueLength) Thread.yield();
+                    int kind = i % 20 == 0 ? 3 : i % 10 == 1 ? 2 : i % 4 == 2 ? 1 : 0;
+                    long queuedAt = System.nanoTime();
+                    CompletableFuture<Ticket> f = parking.parkOrWait(vehicle(kind, "V" + i));
+                    f.thenAccept(t -> {
+                        long waited = System.nanoTime() - queuedAt;
+                        synchronized (longestWait) {
+                            if (waited > longestWait[kind]) longestWait[kind] = waited;
+                        }
+                        admittedCount.incrementAndGet();
+                        parked.add(t.getVehicle().getPlateNumber());
+                    });
+                }
+            });
+        }
+        Thread[] exits = new Thread[gates];
+        for (int g = 0; g < gates; g++) {
+            exits[g] = new Thread(() -> {
+                while (exited.get() < vehicles - spots) {
+                    // only let vehicles out once the queue has built up, so every exit admits someone
+                    boolean arriving = arrived.get() < vehicles;
+                    String plate = arriving && parking.getWaitlist().getDepth() < queueLength / 2 ? null : parked.poll();
+                    if (plate == null) {
+                        Thread.yield();
+                        continue;
+                    }
+                    parking.exitVehicle(plate);
+                    exited.incrementAndGet();
+                }
+            });
+        }
+
+        long t0 = System.nanoTime();
+        for (Thread t : arrivals) t.start();
+        for (Thread t : exits) t.start();
+        for (Thread t : arrivals) t.join();
+        for (Thread t : exits) t.join();
+        long elapsed = System.nanoTime() - t0;
+
+        LatencyHistogram.Snapshot wait = metrics.snapshot(Metrics.Op.WAITLIST);
+        System.out.printf("%-34s %,14.0f ops/s%n", "queued park + exit, " + gates + "+" + gates + " gates",
+                (vehicles + exited.get()) * 1e9 / elapsed);
+        System.out.printf("  time queued: %,d admitted, p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                wait.count, wait.p50Nanos / 1e6, wait.p99Nanos / 1e6, wait.maxNanos / 1e6);
+        StringBuilder sb = new StringBuilder("  longest wait:");
+        for (int k = 0; k < CLASSES.length; k++) sb.append(String.format(" %s %.1f ms", CLASSES[k], longestWait[k] / 1e6));
+        System.out.println(sb);
+
+        // every vehicle is either parked or still queued, and parked ones have distinct spots
+        int stillParked = parking.getActiveTicketCount();
+        int waiting = parking.getWaitlist().getDepth();
+        long distinctSpots = parking.getActiveTickets().stream().map(Ticket::getSpot).distinct().count();
+        boolean consistent = stillParked + waiting + exited.get() == vehicles
+                && distinctSpots == stillParked && admittedCount.get() + waiting == vehicles;
+        System.out.printf("  parked=%,d waiting=%,d exited=%,d consistent=%b%n", stillParked, waiting, exited.get(), consistent);
+    }
+
+    // what a gate without a queue does: try, get turned away, try again
+    private static void retries(int spots, int attempts) {
+        ParkingService parking = new ParkingService(Layouts.floors(10, spots));
+        parking.setMetrics(new Metrics());
+        Layouts.fill(parking, spots, "M");
+        long t0 = System.nanoTime();
+        for (int i = 0; i < attempts; i++) {
+            try {
+                parking.parkVehicle(new Car("R"));
+            } catch (IllegalStateException e) {
+                // full; the gate would sleep and retry
+            }
+        }
+        System.out.printf("%-34s %,14.0f ops/s%n", "rejected parkVehicle retries", attempts * 1e9 / (System.nanoTime() - t0));
+    }
+
+    private static Vehicle vehicle(int kind, String plate) {
+        switch (kind) {
+            case 1:  return new SUV(plate);
+            case 2:  return new Motorcycle(plate);
+            case 3:  return new HandicappedVehicle(plate);
+            default: return new Car(plate);
+        }
+    }
+}
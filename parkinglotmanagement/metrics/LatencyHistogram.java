@@ -0,0 +1,93 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size latency histogram in the HDR style: buckets double in width every power of two,
+ * and each power of two is split into 16 linear sub-buckets, so any recorded value is
+ * reported to within about 6%. Covers 0 ns up to about 4.9 hours; anything longer lands in the top bucket.
+ *
+ * record() never allocates and never locks, so it can sit on the park/exit hot path.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 44; // 2^44 ns
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        totalNanos.add(nanos);
+        // only contended while the max is still climbing
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_COUNT) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) return (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT - 1;
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    // largest value that falls in the bucket, so percentiles never under-report
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        int sub = bucket % SUB_COUNT;
+        long width = 1L << (exponent - SUB_BITS);
+        return ((long) (SUB_COUNT + sub) << (exponent - SUB_BITS)) + width - 1;
+    }
+
+    /** Point-in-time copy; taking one costs one pass over the counters and does not block recorders. */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, totalNanos.sum(), maxNanos.get());
+    }
+
+    public static class Snapshot {
+        public final long count;
+        public final double meanNanos;
+        public final long maxNanos;
+        public final long p50Nanos;
+        public final long p90Nanos;
+        public final long p99Nanos;
+        public final long p999Nanos;
+
+        Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.count = count;
+            this.meanNanos = count == 0 ? 0 : (double) totalNanos / count;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = percentile(counts, count, 0.50, maxNanos);
+            this.p90Nanos = percentile(counts, count, 0.90, maxNanos);
+            this.p99Nanos = percentile(counts, count, 0.99, maxNanos);
+            this.p999Nanos = percentile(counts, count, 0.999, maxNanos);
+        }
+
+        private static long percentile(long[] counts, long count, double p, long max) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(count * p));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(highestValueIn(i), max);
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package metrics;
+
+import model.SpotType;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Counters and latency histograms for the service hot paths.
+ * Recording is two nanoTime reads plus a few atomic adds, with no allocation,
+ * so it stays on in production.
+ *
+ * A failed call is timed like any other and also counted under failures.
+ * An entry turned away for lack of space counts one rejection against every
+ * SpotType the vehicle could have used, since all of them were full.
+ *
+ * WAITLIST is the time a vehicle spent in the entry queue before it got a spot; its
+ * failures are vehicles that left the queue without one. The queued gauge counts waiting
+ * vehicles against every SpotType they could take, the same way as rejections.
+ */
+public class Metrics implements MetricsMXBean {
+
+    public enum Op {
+        PARK, EXIT, PARK_BATCH, EXIT_BATCH, EXIT_QUOTE, PAYMENT,
+        OCCUPANCY_REPORT, REVENUE_REPORT, SPOT_PAGE, TICKET_PAGE, FINE_PAGE, TREND_REPORT, WAITLIST
+    }
+
+    private static final Op[] OPS = Op.values();
+    private static final SpotType[] TYPES = SpotType.values();
+
+    private final LatencyHistogram[] latency = new LatencyHistogram[OPS.length];
+    private final LongAdder[] failures = new LongAdder[OPS.length];
+    private final LongAdder[] rejections = new LongAdder[TYPES.length];
+    private final LongAdder[] queued = new LongAdder[TYPES.length];
+
+    public Metrics() {
+        for (int i = 0; i < OPS.length; i++) {
+            latency[i] = new LatencyHistogram();
+            failures[i] = new LongAdder();
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            rejections[i] = new LongAdder();
+            queued[i] = new LongAdder();
+        }
+    }
+
+    // startNanos comes from System.nanoTime() taken when the call began
+    public void record(Op op, long startNanos) {
+        latency[op.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public void recordFailure(Op op) {
+        failures[op.ordinal()].increment();
+    }
+
+    public void recordRejection(SpotType[] compatibleTypes) {
+        for (SpotType t : compatibleTypes) rejections[t.ordinal()].increment();
+    }
+
+    // delta is +1 when a vehicle joins the entry queue, -1 when it leaves
+    public void recordQueued(SpotType[] compatibleTypes, int delta) {
+        for (SpotType t : compatibleTypes) queued[t.ordinal()].add(delta);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(Op op) {
+        return latency[op.ordinal()].snapshot();
+    }
+
+    public long getFailures(Op op) {
+        return failures[op.ordinal()].sum();
+    }
+
+    public long getRejections(SpotType type) {
+        return rejections[type.ordinal()].sum();
+    }
+
+    public long getQueued(SpotType type) {
+        return queued[type.ordinal()].sum();
+    }
+
+    /**
+     * Registers this instance with the platform MBean server.
+     * A later registration replaces an earlier one, so the most recent AppContext is the one JMX sees.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("parking:type=Metrics");
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean", e);
+        }
+    }
+
+    // --- JMX attributes ---
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (Op op : OPS) out.put(op.name(), snapshot(op).count);
+        return out;
+    }
+
+    @Override
+    public Map<String, Long> getFailures() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (Op op : OPS) out.put(op.name(), getFailures(op));
+        return out;
+    }
+
+    @Override
+    public Map<String, Double> getP50Micros() {
+        return micros(s -> s.p50Nanos);
+    }
+
+    @Override
+    public Map<String, Double> getP99Micros() {
+        return micros(s -> s.p99Nanos);
+    }
+
+    @Override
+    public Map<String, Double> getMaxMicros() {
+        return micros(s -> s.maxNanos);
+    }
+
+    @Override
+    public Map<String, Long> getRejectionsBySpotType() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (SpotType t : TYPES) out.put(t.name(), getRejections(t));
+        return out;
+    }
+
+    @Override
+    public Map<String, Long> getQueuedBySpotType() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (SpotType t : TYPES) out.put(t.name(), getQueued(t));
+        return out;
+    }
+
+    private Map<String, Double> micros(ToDoubleFunction<LatencyHistogram.Snapshot> value) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        for (Op op : OPS) out.put(op.name(), value.applyAsDouble(snapshot(op)) / 1e3);
+        return out;
+    }
+
+    /** Plain-text table of every operation and rejection counter, for logs and the admin panel. */
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-17s %10s %8s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "failed", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Op op : OPS) {
+            LatencyHistogram.Snapshot s = snapshot(op);
+            sb.append(String.format("%-17s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    op, s.count, getFailures(op), s.meanNanos / 1e3,
+                    s.p50Nanos / 1e3, s.p99Nanos / 1e3, s.p999Nanos / 1e3, s.maxNanos / 1e3));
+        }
+        sb.append(String.format("%nrejections (no free spot), by compatible SpotType%n"));
+        for (SpotType t : TYPES) {
+            sb.append(String.format("%-17s %10d%n", t, getRejections(t)));
+        }
+        sb.append(String.format("%nwaiting in the entry queue, by compatible SpotType%n"));
+        for (SpotType t : TYPES) {
+            sb.append(String.format("%-17s %10d%n", t, getQueued(t)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of Metrics, registered as "parking:type=Metrics".
+ * Maps are keyed by operation name (or SpotType name for rejections and queued); latencies are in microseconds.
+ */
+public interface MetricsMXBean {
+
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getFailures();
+
+    Map<String, Double> getP50Micros();
+
+    Map<String, Double> getP99Micros();
+
+    Map<String, Double> getMaxMicros();
+
+    Map<String, Long> getRejectionsBySpotType();
+
+    Map<String, Long> getQueuedBySpotType();
+
+    String dump();
+}
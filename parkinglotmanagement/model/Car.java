@@ -1,11 +1,17 @@
 package model;
 
+import java.time.LocalDateTime;
+
 public class Car extends Vehicle {
 
     public Car(String plateNumber) {
         super(plateNumber);
     }
 
+    public Car(String plateNumber, LocalDateTime entryTime) {
+        super(plateNumber, entryTime);
+    }
+
     @Override
     public boolean canParkIn(SpotType type) {
         return type == SpotType.COMPACT || type == SpotType.REGULAR;
@@ -7,7 +7,7 @@ public class Fine {
     private final double amount;
     private final String reason;
     private final LocalDateTime issuedAt;
-    private boolean paid;
+    private volatile boolean paid; // set by the paying gate, read by reports on other threads
 
     public Fine(String plateNumber, double amount, String reason, LocalDateTime issuedAt) {
         this.plateNumber = plateNumber;
@@ -1,11 +1,22 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class Floor {
     private final int floorNumber;
     private final List<ParkingSpot> spots = new ArrayList<>();
+    private final Map<String, ParkingSpot> spotsById = new HashMap<>();
+
+    // Live counters, kept up to date by the spots themselves so occupancy
+    // can be read from any thread without walking the spot list.
+    private final int[] totalByType = new int[SpotType.values().length];
+    private final AtomicIntegerArray occupiedByType = new AtomicIntegerArray(SpotType.values().length);
+    private final AtomicInteger occupied = new AtomicInteger();
 
     public Floor(int floorNumber) {
         this.floorNumber = floorNumber;
@@ -20,6 +31,59 @@ public class Floor {
     }
 
     public void addSpot(ParkingSpot spot) {
+        spot.setFloor(this, spots.size());
         spots.add(spot);
+        spotsById.put(spot.getSpotId(), spot);
+        countSpot(spot.getType());
+        if (!spot.isAvailable()) spotOccupied(spot.getType());
+    }
+
+    // --- index-based access, so callers don't need a ParkingSpot object per bay ---
+
+    public ParkingSpot getSpot(int index) {
+        return spots.get(index);
+    }
+
+    public SpotType getSpotType(int index) {
+        return spots.get(index).getType();
+    }
+
+    public boolean isSpotAvailable(int index) {
+        return spots.get(index).isAvailable();
+    }
+
+    /** The spot with this ID on this floor, or null. */
+    public ParkingSpot findSpot(String spotId) {
+        return spotsById.get(spotId);
+    }
+
+    public int getTotalCount() {
+        return spots.size();
+    }
+
+    public int getOccupiedCount() {
+        return occupied.get();
+    }
+
+    public int getTotalCount(SpotType type) {
+        return totalByType[type.ordinal()];
+    }
+
+    public int getOccupiedCount(SpotType type) {
+        return occupiedByType.get(type.ordinal());
+    }
+
+    void countSpot(SpotType type) {
+        totalByType[type.ordinal()]++;
+    }
+
+    void spotOccupied(SpotType type) {
+        occupiedByType.incrementAndGet(type.ordinal());
+        occupied.incrementAndGet();
+    }
+
+    void spotFreed(SpotType type) {
+        occupiedByType.decrementAndGet(type.ordinal());
+        occupied.decrementAndGet();
     }
 }
\ No newline at end of file
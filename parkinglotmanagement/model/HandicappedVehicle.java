@@ -1,11 +1,17 @@
 package model;
 
+import java.time.LocalDateTime;
+
 public class HandicappedVehicle extends Vehicle {
 
     public HandicappedVehicle(String plateNumber) {
         super(plateNumber);
     }
 
+    public HandicappedVehicle(String plateNumber, LocalDateTime entryTime) {
+        super(plateNumber, entryTime);
+    }
+
     @Override
     public boolean canParkIn(SpotType type) {
         // Must use handicapped spot
@@ -1,11 +1,17 @@
 package model;
 
+import java.time.LocalDateTime;
+
 public class Motorcycle extends Vehicle {
 
     public Motorcycle(String plateNumber) {
         super(plateNumber);
     }
 
+    public Motorcycle(String plateNumber, LocalDateTime entryTime) {
+        super(plateNumber, entryTime);
+    }
+
     @Override
     public boolean canParkIn(SpotType type) {
         // Allow motorcycles 
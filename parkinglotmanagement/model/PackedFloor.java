@@ -0,0 +1,154 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Floor for very large lots. Instead of a ParkingSpot object and an ID String per bay,
+ * it keeps one byte of spot type and one occupant reference per bay in flat arrays;
+ * an empty occupant slot means the bay is available.
+ *
+ * getSpot / getSpots hand out short-lived ParkingSpot views over those arrays.
+ * Views of the same bay are equal, and claims are a CAS on the occupant slot,
+ * so views can be created and dropped freely by any thread.
+ *
+ * Spot IDs are derived, never stored: F{floor}-{type initial}{position}, e.g. F3-R1042.
+ */
+public class PackedFloor extends Floor {
+
+    private static final SpotType[] TYPES = SpotType.values();
+
+    private final byte[] types;
+    private final AtomicReferenceArray<Vehicle> occupants;
+
+    /** typeOrdinals[i] is the SpotType ordinal of bay i; the array is taken over, not copied. */
+    public PackedFloor(int floorNumber, byte[] typeOrdinals) {
+        super(floorNumber);
+        this.types = typeOrdinals;
+        this.occupants = new AtomicReferenceArray<>(typeOrdinals.length);
+        for (byte t : typeOrdinals) countSpot(TYPES[t]);
+    }
+
+    public static String spotId(int floorNumber, SpotType type, int index) {
+        return "F" + floorNumber + "-" + type.name().charAt(0) + (index + 1);
+    }
+
+    @Override
+    public List<ParkingSpot> getSpots() {
+        return new AbstractList<ParkingSpot>() {
+            @Override
+            public ParkingSpot get(int index) {
+                return getSpot(index);
+            }
+
+            @Override
+            public int size() {
+                return types.length;
+            }
+        };
+    }
+
+    @Override
+    public void addSpot(ParkingSpot spot) {
+        throw new UnsupportedOperationException("PackedFloor bays are fixed when the floor is built");
+    }
+
+    @Override
+    public ParkingSpot getSpot(int index) {
+        if (index < 0 || index >= types.length) throw new IndexOutOfBoundsException("Bay " + index);
+        return new SpotView(index);
+    }
+
+    @Override
+    public SpotType getSpotType(int index) {
+        return TYPES[types[index]];
+    }
+
+    @Override
+    public boolean isSpotAvailable(int index) {
+        return occupants.get(index) == null;
+    }
+
+    @Override
+    public ParkingSpot findSpot(String spotId) {
+        String prefix = "F" + getFloorNumber() + "-";
+        if (!spotId.startsWith(prefix) || spotId.length() < prefix.length() + 2) return null;
+        try {
+            int index = Integer.parseInt(spotId.substring(prefix.length() + 1)) - 1;
+            if (index < 0 || index >= types.length) return null;
+            if (getSpotType(index).name().charAt(0) != spotId.charAt(prefix.length())) return null;
+            return new SpotView(index);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int getTotalCount() {
+        return types.length;
+    }
+
+    private class SpotView extends ParkingSpot {
+
+        SpotView(int index) {
+            super(PackedFloor.this, index);
+        }
+
+        private int index() {
+            return getIndexInFloor();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return occupants.get(index()) == null;
+        }
+
+        @Override
+        public void assignVehicle(Vehicle vehicle) {
+            if (occupants.getAndSet(index(), vehicle) == null) spotOccupied(getType());
+        }
+
+        @Override
+        public boolean tryAssignVehicle(Vehicle vehicle) {
+            if (!occupants.compareAndSet(index(), null, vehicle)) return false;
+            spotOccupied(getType());
+            return true;
+        }
+
+        @Override
+        public void removeVehicle() {
+            if (occupants.getAndSet(index(), null) != null) spotFreed(getType());
+        }
+
+        @Override
+        public String getSpotId() {
+            return spotId(getFloorNumber(), getType(), index());
+        }
+
+        @Override
+        public SpotType getType() {
+            return TYPES[types[index()]];
+        }
+
+        @Override
+        public SpotStatus getStatus() {
+            return isAvailable() ? SpotStatus.AVAILABLE : SpotStatus.OCCUPIED;
+        }
+
+        @Override
+        public Vehicle getCurrentVehicle() {
+            return occupants.get(index());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SpotView && ((SpotView) o).getFloor() == getFloor() && ((SpotView) o).index() == index();
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(getFloor()) * 31 + index();
+        }
+    }
+}
@@ -4,8 +4,10 @@ public class ParkingSpot {
 
     private String spotId;
     private SpotType type;
-    private SpotStatus status;
-    private Vehicle currentVehicle;
+    private volatile SpotStatus status;
+    private volatile Vehicle currentVehicle;
+    private Floor floor;
+    private int indexInFloor;
 
     public ParkingSpot(String spotId, SpotType type) {
         this.spotId = spotId;
@@ -13,16 +15,31 @@ public class ParkingSpot {
         this.status = SpotStatus.AVAILABLE;
     }
 
+    // for flyweight views (PackedFloor) that keep their state elsewhere
+    protected ParkingSpot(Floor floor, int indexInFloor) {
+        this.floor = floor;
+        this.indexInFloor = indexInFloor;
+    }
+
     public boolean isAvailable() {
         return status == SpotStatus.AVAILABLE;
     }
 
-    public void assignVehicle(Vehicle vehicle) {
+    public synchronized void assignVehicle(Vehicle vehicle) {
+        if (status != SpotStatus.OCCUPIED && floor != null) floor.spotOccupied(type);
         this.currentVehicle = vehicle;
         this.status = SpotStatus.OCCUPIED;
     }
 
-    public void removeVehicle() {
+    // Check-then-act in one step so two gates can never put two cars in one spot
+    public synchronized boolean tryAssignVehicle(Vehicle vehicle) {
+        if (status != SpotStatus.AVAILABLE) return false;
+        assignVehicle(vehicle);
+        return true;
+    }
+
+    public synchronized void removeVehicle() {
+        if (status == SpotStatus.OCCUPIED && floor != null) floor.spotFreed(type);
         this.currentVehicle = null;
         this.status = SpotStatus.AVAILABLE;
     }
@@ -30,4 +47,12 @@ public class ParkingSpot {
     public String getSpotId() { return spotId; }
     public SpotType getType() { return type; }
     public SpotStatus getStatus() { return status; }
-}
\ No newline at end of file
+    public Vehicle getCurrentVehicle() { return currentVehicle; }
+    public Floor getFloor() { return floor; }
+    public int getIndexInFloor() { return indexInFloor; }
+
+    void setFloor(Floor floor, int indexInFloor) {
+        this.floor = floor;
+        this.indexInFloor = indexInFloor;
+    }
+}
@@ -0,0 +1,30 @@
+package model;
+
+import java.time.LocalDateTime;
+
+public class Reservation {
+    private final String reservationId;
+    private final String plateNumber;
+    private final ParkingSpot spot;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    public Reservation(String reservationId, String plateNumber, ParkingSpot spot, LocalDateTime from, LocalDateTime to) {
+        this.reservationId = reservationId;
+        this.plateNumber = plateNumber;
+        this.spot = spot;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getReservationId() { return reservationId; }
+    public String getPlateNumber() { return plateNumber; }
+    public ParkingSpot getSpot() { return spot; }
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+
+    // [from, to) windows
+    public boolean overlaps(LocalDateTime otherFrom, LocalDateTime otherTo) {
+        return from.isBefore(otherTo) && otherFrom.isBefore(to);
+    }
+}
@@ -1,11 +1,17 @@
 package model;
 
+import java.time.LocalDateTime;
+
 public class SUV extends Vehicle {
 
     public SUV(String plateNumber) {
         super(plateNumber);
     }
 
+    public SUV(String plateNumber, LocalDateTime entryTime) {
+        super(plateNumber, entryTime);
+    }
+
     @Override
     public boolean canParkIn(SpotType type) {
         return type == SpotType.REGULAR || type == SpotType.RESERVED;
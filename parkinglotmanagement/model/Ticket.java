@@ -7,7 +7,7 @@ public class Ticket {
     private final Vehicle vehicle;
     private final ParkingSpot spot;
     private final LocalDateTime entryTime;
-    private LocalDateTime exitTime;
+    private volatile LocalDateTime exitTime;
 
     public Ticket(String ticketId, Vehicle vehicle, ParkingSpot spot, LocalDateTime entryTime) {
         this.ticketId = ticketId;
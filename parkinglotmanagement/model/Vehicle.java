@@ -0,0 +1,40 @@
+package model;
+
+import java.time.LocalDateTime;
+
+public abstract class Vehicle {
+
+    /** Longest plate the lot accepts; anything longer is a misread, not a vehicle. */
+    public static final int MAX_PLATE_LENGTH = 20;
+
+    protected String plateNumber;
+    protected LocalDateTime entryTime;
+
+    public Vehicle(String plateNumber) {
+        this.plateNumber = plateNumber;
+        this.entryTime = LocalDateTime.now();
+    }
+
+    // Used when a parked vehicle is restored after a restart
+    public Vehicle(String plateNumber, LocalDateTime entryTime) {
+        this.plateNumber = plateNumber;
+        this.entryTime = entryTime;
+    }
+
+    /** Rejects a plate the lot can't record, before anything has been changed for it. */
+    public static void checkPlate(String plateNumber) {
+        if (plateNumber == null || plateNumber.isBlank() || plateNumber.length() > MAX_PLATE_LENGTH) {
+            throw new IllegalArgumentException("Plate number must be 1 to " + MAX_PLATE_LENGTH + " characters");
+        }
+    }
+
+    public abstract boolean canParkIn(SpotType type);
+
+    public String getPlateNumber() {
+        return plateNumber;
+    }
+
+    public LocalDateTime getEntryTime() {
+        return entryTime;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,303 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log file with group commit.
+ *
+ * Writers only copy their record into an in-memory buffer. A background flusher
+ * swaps the buffer every few milliseconds, writes it with one FileChannel call and
+ * fsyncs once for the whole group, so the gate hot path never waits on the disk
+ * unless the buffer is full.
+ *
+ * Record layout: [int bodyLength][int crc32(body)][body]. A torn record at the
+ * tail (crash mid-write) fails its CRC and ends the replay there.
+ *
+ * If a write or fsync fails the flusher stops and records the error; from then on
+ * append() and sync() throw IllegalStateException instead of waiting for a disk that
+ * is not coming back.
+ */
+public class GroupCommitLog implements Closeable {
+
+    static final int MAX_RECORD = 4096;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private FileChannel channel; // swapped by roll(); read under the lock
+    private final long flushIntervalMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final Condition dataReady = lock.newCondition();
+    private final Thread flusher;
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer pending = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private ByteBuffer writing = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long appended;      // records handed to append()
+    private long durable;       // records written and fsynced
+    private long size;          // bytes in the current file, counting records still buffered
+    private boolean closed;
+    private boolean rolling;     // appenders wait while roll() drains the old file
+    private IOException failure; // set once a write fails; the log is unusable after that
+
+    public GroupCommitLog(Path file, long flushIntervalMillis) throws IOException {
+        this.channel = openForAppend(file);
+        this.size = channel.size();
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Appends one record. The body writer must not put more than MAX_RECORD - 8 bytes; a
+     * record that does not fit, or a body that throws, leaves nothing behind and throws.
+     * Returns as soon as the record is buffered; call sync() to wait for it to be on disk.
+     */
+    public void append(Consumer<ByteBuffer> body) {
+        lock.lock();
+        try {
+            appendLocked(body);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Appends several records under one lock acquisition; they land in the file contiguously unless the buffer fills. */
+    public void appendAll(List<Consumer<ByteBuffer>> bodies) {
+        lock.lock();
+        try {
+            for (Consumer<ByteBuffer> body : bodies) appendLocked(body);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendLocked(Consumer<ByteBuffer> body) {
+        checkWritable();
+        while (rolling || pending.remaining() < MAX_RECORD) {
+            dataReady.signal();
+            flushed.awaitUninterruptibly();
+            checkWritable();
+        }
+        int start = pending.position();
+        int end;
+        try {
+            pending.position(start + 8);
+            body.accept(pending);
+            end = pending.position();
+            if (end - start > MAX_RECORD) throw new BufferOverflowException();
+        } catch (RuntimeException e) {
+            // drop whatever the body got written, so no partial record ever reaches the file
+            pending.position(start);
+            if (e instanceof BufferOverflowException) {
+                throw new IllegalArgumentException("Journal record larger than " + MAX_RECORD + " bytes", e);
+            }
+            throw e;
+        }
+
+        ByteBuffer view = pending.duplicate();
+        view.position(start + 8).limit(end);
+        crc.reset();
+        crc.update(view);
+        pending.putInt(start, end - start - 8);
+        pending.putInt(start + 4, (int) crc.getValue());
+        appended++;
+        size += end - start;
+    }
+
+    private void checkWritable() {
+        if (failure != null) throw new IllegalStateException("Journal write failed: " + failure.getMessage(), failure);
+        if (closed) throw new IllegalStateException("Journal is closed");
+    }
+
+    /** Blocks until every record appended so far is fsynced. */
+    public void sync() {
+        lock.lock();
+        try {
+            awaitDurable(appended);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // caller holds the lock
+    private void awaitDurable(long target) {
+        while (durable < target) {
+            if (failure != null) throw new IllegalStateException("Journal write failed: " + failure.getMessage(), failure);
+            if (closed) throw new IllegalStateException("Journal closed before sync");
+            dataReady.signal();
+            flushed.awaitUninterruptibly();
+        }
+    }
+
+    /** Bytes in the current file, including records not yet flushed. */
+    public long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Carries on in a new file. Every record appended before the call ends up in the old
+     * file, fsynced; every record after it goes to the new one. Appenders wait while the
+     * old file is flushed.
+     */
+    public void roll(Path file) throws IOException {
+        FileChannel next = openForAppend(file);
+        FileChannel old;
+        lock.lock();
+        try {
+            rolling = true;
+            // once everything is durable the flusher is idle, so the old channel can go
+            awaitDurable(appended);
+            old = channel;
+            channel = next;
+            size = next.size();
+        } catch (RuntimeException e) {
+            next.close();
+            throw e;
+        } finally {
+            rolling = false;
+            flushed.signalAll();
+            lock.unlock();
+        }
+        old.close();
+    }
+
+    private static FileChannel openForAppend(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long batchEnd;
+            FileChannel out;
+            lock.lock();
+            try {
+                if (pending.position() == 0) {
+                    if (closed) return;
+                    try {
+                        dataReady.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (pending.position() == 0) continue;
+                }
+                ByteBuffer full = pending;
+                pending = writing;
+                writing = full;
+                batchEnd = appended;
+                out = channel;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) out.write(writing);
+                out.force(false);
+                writing.clear();
+            } catch (IOException e) {
+                // a full or failed disk: wake everyone waiting so they throw instead of hanging
+                lock.lock();
+                try {
+                    failure = e;
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+
+            lock.lock();
+            try {
+                durable = batchEnd;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            lock.lock();
+            try {
+                closed = true;
+                dataReady.signal();
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads every intact record of a log file, in order, stopping at the first torn one.
+     * Streams the file through a fixed buffer, so any size of log can be read.
+     */
+    public static void read(Path file, Consumer<ByteBuffer> recordConsumer) throws IOException {
+        if (!Files.exists(file)) return;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+            buf.flip();
+            CRC32 crc = new CRC32();
+            while (fill(in, buf, 8)) {
+                int length = buf.getInt(buf.position());
+                int expected = buf.getInt(buf.position() + 4);
+                if (length < 0 || length > BUFFER_SIZE - 8 || !fill(in, buf, 8 + length)) return;
+
+                buf.position(buf.position() + 8);
+                ByteBuffer body = buf.slice();
+                body.limit(length);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != expected) return;
+
+                recordConsumer.accept(body);
+                buf.position(buf.position() + length);
+            }
+        }
+    }
+
+    // makes at least n bytes readable in buf, reading on from the file as needed; false at end of file
+    private static boolean fill(FileChannel in, ByteBuffer buf, int n) throws IOException {
+        if (buf.remaining() >= n) return true;
+        buf.compact();
+        try {
+            while (buf.position() < n) {
+                if (in.read(buf) < 0) return false;
+            }
+            return true;
+        } finally {
+            buf.flip();
+        }
+    }
+}
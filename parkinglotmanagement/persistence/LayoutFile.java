@@ -0,0 +1,226 @@
+package persistence;
+
+import model.Floor;
+import model.PackedFloor;
+import model.SpotType;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Lot layouts on disk, loaded straight into PackedFloors: one byte per bay, spot IDs derived
+ * from floor and position, so a million-bay lot costs a few MB and no per-bay objects.
+ *
+ * Text form, for people; read a line at a time, so layouts of any size stream through:
+ *
+ *   # comment
+ *   floor 1
+ *   COMPACT 20                                    20 compact bays
+ *   REGULAR 50
+ *   repeat 100 COMPACT REGULAR REGULAR RESERVED   that sequence of 4 bays, 100 times
+ *   floor 2
+ *   ...
+ *
+ * Binary form, for machines; memory-mapped and copied out a floor at a time:
+ *
+ *   int magic "LOT1", int floorCount, then per floor: int floorNumber, int bays, byte[bays] SpotType ordinals
+ *
+ * read() tells the two apart by the magic number. Floor numbers must be unique, since spot IDs
+ * are derived from them. Malformed input of either form fails with IllegalStateException.
+ */
+public class LayoutFile {
+
+    private static final int MAGIC = 0x4C4F5431; // "LOT1"
+    private static final SpotType[] TYPES = SpotType.values();
+
+    private LayoutFile() {
+    }
+
+    public static List<Floor> read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            if (ch.read(head, 0) == 4 && head.getInt(0) == MAGIC) return readBinary(ch);
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            return readText(in);
+        }
+    }
+
+    // --- text ---
+
+    public static List<Floor> readText(Reader source) throws IOException {
+        BufferedReader in = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader(source);
+        List<Floor> floors = new ArrayList<>();
+        Set<Integer> floorNumbers = new HashSet<>();
+        int floorNumber = -1;
+        byte[] bays = new byte[1024];
+        int count = 0;
+
+        String line;
+        for (int lineNo = 1; (line = in.readLine()) != null; lineNo++) {
+            String[] tok = tokens(line);
+            if (tok.length == 0) continue;
+
+            if (tok[0].equalsIgnoreCase("floor")) {
+                if (tok.length != 2) throw bad(lineNo, "expected: floor <number>");
+                if (floorNumber >= 0) floors.add(new PackedFloor(floorNumber, Arrays.copyOf(bays, count)));
+                floorNumber = number(tok[1], lineNo);
+                if (!floorNumbers.add(floorNumber)) throw bad(lineNo, "floor " + floorNumber + " appears twice");
+                count = 0;
+                continue;
+            }
+            if (floorNumber < 0) throw bad(lineNo, "bays before the first floor line");
+
+            if (tok[0].equalsIgnoreCase("repeat")) {
+                if (tok.length < 3) throw bad(lineNo, "expected: repeat <times> <TYPE>...");
+                int times = number(tok[1], lineNo);
+                byte[] seq = new byte[tok.length - 2];
+                for (int i = 0; i < seq.length; i++) seq[i] = type(tok[i + 2], lineNo);
+                bays = ensure(bays, count + (long) times * seq.length, lineNo);
+                for (int r = 0; r < times; r++, count += seq.length) System.arraycopy(seq, 0, bays, count, seq.length);
+            } else {
+                if (tok.length != 2) throw bad(lineNo, "expected: <TYPE> <count>");
+                byte type = type(tok[0], lineNo);
+                int n = number(tok[1], lineNo);
+                bays = ensure(bays, count + (long) n, lineNo);
+                Arrays.fill(bays, count, count + n, type);
+                count += n;
+            }
+        }
+        if (floorNumber >= 0) floors.add(new PackedFloor(floorNumber, Arrays.copyOf(bays, count)));
+        return floors;
+    }
+
+    /** Run-length text form of any floors, packed or not. */
+    public static void writeText(Path file, List<Floor> floors) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            for (Floor floor : floors) {
+                out.write("floor " + floor.getFloorNumber() + "\n");
+                int n = floor.getTotalCount();
+                for (int i = 0; i < n; ) {
+                    SpotType type = floor.getSpotType(i);
+                    int run = 1;
+                    while (i + run < n && floor.getSpotType(i + run) == type) run++;
+                    out.write(type + " " + run + "\n");
+                    i += run;
+                }
+            }
+        }
+    }
+
+    private static final String[] NO_TOKENS = new String[0];
+
+    // whitespace-separated words up to any '#'; hand-rolled, a regex split per line is most of the parse time
+    private static String[] tokens(String line) {
+        List<String> out = null;
+        int i = 0, n = line.length();
+        while (i < n) {
+            char c = line.charAt(i);
+            if (c == '#') break;
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < n && !Character.isWhitespace(line.charAt(i)) && line.charAt(i) != '#') i++;
+            if (out == null) out = new ArrayList<>(4);
+            out.add(line.substring(start, i));
+        }
+        return out == null ? NO_TOKENS : out.toArray(NO_TOKENS);
+    }
+
+    private static byte type(String token, int lineNo) {
+        try {
+            return (byte) SpotType.valueOf(token.toUpperCase(Locale.ROOT)).ordinal();
+        } catch (IllegalArgumentException e) {
+            throw bad(lineNo, "unknown spot type " + token);
+        }
+    }
+
+    private static int number(String token, int lineNo) {
+        try {
+            int n = Integer.parseInt(token);
+            if (n < 0) throw bad(lineNo, "negative number " + token);
+            return n;
+        } catch (NumberFormatException e) {
+            throw bad(lineNo, "not a number: " + token);
+        }
+    }
+
+    private static byte[] ensure(byte[] bays, long needed, int lineNo) {
+        if (needed > Integer.MAX_VALUE - 8) throw bad(lineNo, "floor too large");
+        if (needed <= bays.length) return bays;
+        return Arrays.copyOf(bays, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, bays.length * 2L)));
+    }
+
+    private static IllegalStateException bad(int lineNo, String message) {
+        return new IllegalStateException("Layout line " + lineNo + ": " + message);
+    }
+
+    // --- binary ---
+
+    private static List<Floor> readBinary(FileChannel ch) throws IOException {
+        MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        try {
+            buf.getInt(); // magic
+            int floorCount = buf.getInt();
+            // every floor takes at least its two header ints, so a bad count can't size a huge list
+            if (floorCount < 0 || floorCount > buf.remaining() / 8) throw bad("floor count " + floorCount + " does not fit the file");
+            List<Floor> floors = new ArrayList<>(floorCount);
+            Set<Integer> floorNumbers = new HashSet<>();
+            for (int f = 0; f < floorCount; f++) {
+                int floorNumber = buf.getInt();
+                if (!floorNumbers.add(floorNumber)) throw bad("floor " + floorNumber + " appears twice");
+                int n = buf.getInt();
+                if (n < 0) throw bad("floor " + floorNumber + ": negative bay count " + n);
+                if (n > buf.remaining()) throw bad("floor " + floorNumber + " has " + n + " bays, file is truncated");
+                byte[] bays = new byte[n];
+                buf.get(bays);
+                for (byte b : bays) {
+                    if (b < 0 || b >= TYPES.length) throw bad("floor " + floorNumber + ": bad spot type " + b);
+                }
+                floors.add(new PackedFloor(floorNumber, bays));
+            }
+            return floors;
+        } catch (BufferUnderflowException e) {
+            throw bad("file is truncated");
+        }
+    }
+
+    private static IllegalStateException bad(String message) {
+        return new IllegalStateException("Binary layout: " + message);
+    }
+
+    public static void writeBinary(Path file, List<Floor> floors) throws IOException {
+        try (OutputStream os = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(floors.size());
+            for (Floor floor : floors) {
+                int n = floor.getTotalCount();
+                out.writeInt(floor.getFloorNumber());
+                out.writeInt(n);
+                for (int i = 0; i < n; i++) out.writeByte(floor.getSpotType(i).ordinal());
+            }
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package persistence;
+
+import model.*;
+import service.ParkingService;
+import service.PaymentService;
+import service.StateJournal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Write-ahead journal of park, exit, fine and payment events.
+ *
+ * On disk a data directory holds:
+ *   snapshot.dat       open tickets and in-memory fines as of the start of generation N
+ *                      (written atomically via rename)
+ *   payments.log       every payment from before generation N; append-only, each record
+ *                      tagged with the snapshot generation that moved it there
+ *   journal-N.log      every event since the snapshot, group-committed by GroupCommitLog
+ *   fines-archive.log  paid fines moved off the heap by archivePaidFines(); append-only
+ *
+ * checkpoint() rolls the live journal over to generation N+1, then folds journal-N into
+ * a new snapshot from the files alone, without stopping the gates: journal-N's payments
+ * are appended to payments.log, the snapshot is rewritten and journal-N deleted. The
+ * snapshot never holds payment history, so its size follows the open tickets and fines,
+ * not the age of the lot. A crash at any point leaves the old snapshot plus every
+ * journal since it; payments.log records tagged past the snapshot are cut off on open.
+ *
+ * open() replays everything into fresh services and runs the same fold on the journals
+ * it found before starting a new one.
+ */
+public class ParkingJournal implements StateJournal, Closeable {
+
+    private static final byte PARK = 1;
+    private static final byte EXIT = 2;
+    private static final byte FINE = 3;
+    private static final byte PAYMENT = 4;
+    private static final byte FINES_ARCHIVED = 5;
+    private static final byte GENERATION = 9;
+
+    // per string field; a record has at most three, so any record stays inside GroupCommitLog.MAX_RECORD
+    private static final int MAX_STRING_BYTES = 1024;
+
+    private static final String SNAPSHOT = "snapshot.dat";
+    private static final String PAYMENTS = "payments.log";
+    private static final String FINE_ARCHIVE = "fines-archive.log";
+
+    private final Path dataDir;
+    private final GroupCommitLog log;
+    private final GroupCommitLog fineArchive;
+    private final ParkingService parking;
+    // guarded by this
+    private long snapshotGeneration; // generation snapshot.dat starts
+    private long generation;         // generation the live journal is writing
+    private long paymentBytes;       // length of payments.log up to its last complete fold
+
+    private ParkingJournal(Path dataDir, GroupCommitLog log, GroupCommitLog fineArchive, ParkingService parking,
+                           long generation, long paymentBytes) {
+        this.dataDir = dataDir;
+        this.log = log;
+        this.fineArchive = fineArchive;
+        this.parking = parking;
+        this.snapshotGeneration = generation;
+        this.generation = generation;
+        this.paymentBytes = paymentBytes;
+    }
+
+    /**
+     * Rebuilds parking and payment state from dataDir, then starts journaling into it.
+     * The services must be freshly constructed (empty lot, no payments).
+     */
+    public static ParkingJournal open(Path dataDir, ParkingService parking, PaymentService payments,
+                                      long flushIntervalMillis) throws IOException {
+        Files.createDirectories(dataDir);
+        Replayer replayer = new Replayer(parking, payments);
+
+        GroupCommitLog.read(dataDir.resolve(SNAPSHOT), replayer::apply);
+        long snapshotGeneration = replayer.generation;
+        deleteJournalsBefore(dataDir, snapshotGeneration);
+
+        // payments folded in by a checkpoint that never got to write its snapshot are left out, then cut off
+        long[] paymentBytes = {0};
+        boolean[] stale = {false};
+        GroupCommitLog.read(dataDir.resolve(PAYMENTS), b -> {
+            int size = 8 + b.remaining();
+            if (stale[0] || b.getLong() > snapshotGeneration) {
+                stale[0] = true;
+                return;
+            }
+            replayer.apply(b);
+            paymentBytes[0] += size;
+        });
+
+        // normally one journal; more if a checkpoint was interrupted
+        long generation = snapshotGeneration;
+        for (; Files.exists(journalFile(dataDir, generation)); generation++) {
+            GroupCommitLog.read(journalFile(dataDir, generation), replayer::apply);
+        }
+        if (generation > snapshotGeneration) {
+            paymentBytes[0] = fold(dataDir, snapshotGeneration, generation, paymentBytes[0]);
+            deleteJournalsBefore(dataDir, generation);
+        }
+
+        ParkingJournal journal = new ParkingJournal(dataDir,
+                new GroupCommitLog(journalFile(dataDir, generation), flushIntervalMillis),
+                new GroupCommitLog(dataDir.resolve(FINE_ARCHIVE), flushIntervalMillis),
+                parking, generation, paymentBytes[0]);
+        parking.setJournal(journal);
+        payments.setJournal(journal);
+        return journal;
+    }
+
+    private static Path journalFile(Path dataDir, long generation) {
+        return dataDir.resolve("journal-" + generation + ".log");
+    }
+
+    // journals the snapshot already covers, left behind by a crash between the snapshot and the delete
+    private static void deleteJournalsBefore(Path dataDir, long generation) throws IOException {
+        try (DirectoryStream<Path> journals = Files.newDirectoryStream(dataDir, "journal-*.log")) {
+            for (Path file : journals) {
+                String name = file.getFileName().toString();
+                try {
+                    long g = Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+                    if (g < generation) Files.delete(file);
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts a new journal generation and folds the finished one into the snapshot, so the
+     * journal on disk only holds events since the last checkpoint. Gates keep running; they
+     * only wait while the live journal is flushed over to its new file.
+     */
+    public synchronized void checkpoint() throws IOException {
+        long next = generation + 1;
+        log.roll(journalFile(dataDir, next));
+        generation = next;
+        // if the fold fails the finished journals stay on disk, and the next checkpoint takes them all
+        paymentBytes = fold(dataDir, snapshotGeneration, next, paymentBytes);
+        snapshotGeneration = next;
+        deleteJournalsBefore(dataDir, next);
+    }
+
+    /** checkpoint() once the live journal has grown past maxBytes; returns whether it ran. */
+    public boolean checkpointIfLarger(long maxBytes) throws IOException {
+        if (log.size() < maxBytes) return false;
+        checkpoint();
+        return true;
+    }
+
+    /**
+     * Folds snapshot.dat (generation from) and journals from..to-1 into a snapshot for
+     * generation to, reading only the files. Appends the journals' payments to payments.log
+     * after cutting it back to paymentBytes, and returns its new length. The folded journals
+     * are left for the caller to delete.
+     */
+    private static long fold(Path dataDir, long from, long to, long paymentBytes) throws IOException {
+        Path paymentsFile = dataDir.resolve(PAYMENTS);
+        try (FileChannel payments = FileChannel.open(paymentsFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            payments.truncate(paymentBytes); // whatever an unfinished fold left
+        }
+        Folder folder;
+        try (GroupCommitLog payments = new GroupCommitLog(paymentsFile, 1)) {
+            folder = new Folder(payments, to);
+            GroupCommitLog.read(dataDir.resolve(SNAPSHOT), folder::apply);
+            for (long g = from; g < to; g++) GroupCommitLog.read(journalFile(dataDir, g), folder::apply);
+        }
+        long newPaymentBytes = Files.size(paymentsFile);
+
+        Path tmp = dataDir.resolve(SNAPSHOT + ".tmp");
+        Files.deleteIfExists(tmp);
+        try (GroupCommitLog out = new GroupCommitLog(tmp, 1)) {
+            out.append(b -> { b.put(GENERATION); b.putLong(to); });
+            // fines carry their own paid flag here, so payments don't need to point at them
+            for (Fine f : folder.fines.values()) out.append(b -> writeFine(b, f));
+            for (byte[] park : folder.parks.values()) out.append(b -> b.put(park));
+        }
+        Files.move(tmp, dataDir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return newPaymentBytes;
+    }
+
+    // --- StateJournal ---
+
+    @Override
+    public void vehicleParked(Ticket ticket) {
+        log.append(b -> writePark(b, ticket));
+    }
+
+    @Override
+    public void vehicleExited(Ticket ticket) {
+        log.append(b -> writeExit(b, ticket));
+    }
+
+    @Override
+    public void vehiclesParked(List<Ticket> tickets) {
+        List<Consumer<ByteBuffer>> records = new ArrayList<>(tickets.size());
+        for (Ticket t : tickets) records.add(b -> writePark(b, t));
+        log.appendAll(records);
+    }
+
+    @Override
+    public void vehiclesExited(List<Ticket> tickets, List<Fine> issuedFines) {
+        List<Consumer<ByteBuffer>> records = new ArrayList<>(tickets.size() + issuedFines.size());
+        for (Ticket t : tickets) records.add(b -> writeExit(b, t));
+        for (Fine f : issuedFines) records.add(b -> writeFine(b, f));
+        log.appendAll(records);
+    }
+
+    @Override
+    public void fineIssued(Fine fine) {
+        log.append(b -> writeFine(b, fine));
+    }
+
+    @Override
+    public void paymentRecorded(Payment payment, Fine paidFine) {
+        log.append(b -> writePayment(b, payment, paidFine));
+    }
+
+    /**
+     * Moves paid fines issued before cutoff out of memory into fines-archive.log.
+     * The archive is synced before the journal records the cut, so a crash in between
+     * can at worst leave a fine both archived and in memory, never lost.
+     */
+    public synchronized int archivePaidFines(LocalDateTime cutoff) {
+        int archived = parking.getFineLedger().archivePaidBefore(cutoff, f -> fineArchive.append(b -> writeFine(b, f)));
+        fineArchive.sync();
+        log.append(b -> {
+            b.put(FINES_ARCHIVED);
+            putTime(b, cutoff);
+        });
+        return archived;
+    }
+
+    /** Reads every fine ever archived from dataDir, oldest first. */
+    public static void readArchivedFines(Path dataDir, Consumer<Fine> consumer) throws IOException {
+        GroupCommitLog.read(dataDir.resolve(FINE_ARCHIVE), b -> {
+            b.get(); // record type, always FINE
+            consumer.accept(readFine(b));
+        });
+    }
+
+    /** Waits until everything journaled so far is on disk. */
+    public void sync() {
+        log.sync();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            log.close();
+        } finally {
+            fineArchive.close();
+        }
+    }
+
+    // --- encoding ---
+
+    private static void writePark(ByteBuffer b, Ticket t) {
+        b.put(PARK);
+        putString(b, t.getTicketId());
+        putString(b, t.getVehicle().getPlateNumber());
+        b.put(vehicleKind(t.getVehicle()));
+        putString(b, t.getSpot().getSpotId());
+        putTime(b, t.getEntryTime());
+    }
+
+    private static void writeExit(ByteBuffer b, Ticket t) {
+        b.put(EXIT);
+        putString(b, t.getVehicle().getPlateNumber());
+        putTime(b, t.getExitTime());
+    }
+
+    private static void writeFine(ByteBuffer b, Fine f) {
+        b.put(FINE);
+        putString(b, f.getPlateNumber());
+        b.putDouble(f.getAmount());
+        putString(b, f.getReason());
+        putTime(b, f.getIssuedAt());
+        b.put((byte) (f.isPaid() ? 1 : 0));
+    }
+
+    private static Fine readFine(ByteBuffer b) {
+        String plate = getString(b);
+        double amount = b.getDouble();
+        String reason = getString(b);
+        LocalDateTime issuedAt = getTime(b);
+        Fine fine = new Fine(plate, amount, reason, issuedAt);
+        if (b.get() == 1) fine.markPaid();
+        return fine;
+    }
+
+    private static void writePayment(ByteBuffer b, Payment p, Fine paidFine) {
+        b.put(PAYMENT);
+        putString(b, p.getPaymentId());
+        putString(b, p.getPlateNumber());
+        b.putDouble(p.getParkingFee());
+        b.putDouble(p.getFinePaid());
+        putTime(b, p.getPaidAt());
+        b.put((byte) (paidFine == null ? 0 : 1));
+        if (paidFine != null) putTime(b, paidFine.getIssuedAt());
+    }
+
+    private static byte vehicleKind(Vehicle v) {
+        if (v instanceof HandicappedVehicle) return 3;
+        if (v instanceof SUV) return 2;
+        if (v instanceof Motorcycle) return 0;
+        return 1;
+    }
+
+    private static Vehicle vehicleOf(byte kind, String plate, LocalDateTime entryTime) {
+        switch (kind) {
+            case 0: return new Motorcycle(plate, entryTime);
+            case 2: return new SUV(plate, entryTime);
+            case 3: return new HandicappedVehicle(plate, entryTime);
+            default: return new Car(plate, entryTime);
+        }
+    }
+
+    private static void putString(ByteBuffer b, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Too long to journal (" + bytes.length + " bytes): " + s.substring(0, 16) + "...");
+        }
+        b.putShort((short) bytes.length);
+        b.put(bytes);
+    }
+
+    private static String getString(ByteBuffer b) {
+        byte[] bytes = new byte[b.getShort() & 0xFFFF];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putTime(ByteBuffer b, LocalDateTime t) {
+        b.putLong(t.toEpochSecond(ZoneOffset.UTC));
+        b.putInt(t.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer b) {
+        return LocalDateTime.ofEpochSecond(b.getLong(), b.getInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Replays snapshot and journal records at the record level, without a lot: what is
+     * still open goes to the next snapshot, payments go straight on to payments.log.
+     */
+    private static class Folder {
+        private final GroupCommitLog payments;
+        private final long generation;
+        final Map<String, byte[]> parks = new LinkedHashMap<>();  // plate -> PARK record as written
+        final Map<String, Fine> fines = new LinkedHashMap<>();    // plate@issuedAt, issue order
+
+        Folder(GroupCommitLog payments, long generation) {
+            this.payments = payments;
+            this.generation = generation;
+        }
+
+        void apply(ByteBuffer b) {
+            ByteBuffer record = b.duplicate();
+            byte type = b.get();
+            switch (type) {
+                case GENERATION:
+                    break;
+                case PARK: {
+                    getString(b); // ticket ID
+                    byte[] bytes = new byte[record.remaining()];
+                    record.get(bytes);
+                    parks.put(getString(b), bytes);
+                    break;
+                }
+                case EXIT:
+                    parks.remove(getString(b));
+                    break;
+                case FINE: {
+                    Fine fine = readFine(b);
+                    fines.put(fine.getPlateNumber() + "@" + fine.getIssuedAt(), fine);
+                    break;
+                }
+                case FINES_ARCHIVED: {
+                    // same cut as FineLedger.archivePaidBefore
+                    LocalDateTime cutoff = getTime(b);
+                    for (Iterator<Fine> it = fines.values().iterator(); it.hasNext(); ) {
+                        Fine f = it.next();
+                        if (!f.getIssuedAt().isBefore(cutoff)) break;
+                        if (f.isPaid()) it.remove();
+                    }
+                    break;
+                }
+                case PAYMENT: {
+                    String id = getString(b);
+                    String plate = getString(b);
+                    double fee = b.getDouble();
+                    double finePaid = b.getDouble();
+                    LocalDateTime paidAt = getTime(b);
+                    if (b.get() == 1) {
+                        Fine fine = fines.get(plate + "@" + getTime(b));
+                        if (fine != null) fine.markPaid();
+                    }
+                    Payment p = new Payment(id, plate, fee, finePaid, paidAt);
+                    payments.append(out -> {
+                        out.putLong(generation);
+                        writePayment(out, p, null);
+                    });
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown journal record type " + type);
+            }
+        }
+    }
+
+    /** Applies decoded records to the services, in file order. */
+    private static class Replayer {
+        private final ParkingService parking;
+        private final PaymentService payments;
+        // fines are identified by plate + issue time, which is all a payment record carries
+        private final Map<String, Fine> finesByKey = new HashMap<>();
+        long generation;
+
+        Replayer(ParkingService parking, PaymentService payments) {
+            this.parking = parking;
+            this.payments = payments;
+        }
+
+        void apply(ByteBuffer b) {
+            byte type = b.get();
+            switch (type) {
+                case GENERATION:
+                    generation = b.getLong();
+                    break;
+                case PARK: {
+                    String ticketId = getString(b);
+                    String plate = getString(b);
+                    byte kind = b.get();
+                    String spotId = getString(b);
+                    parking.restoreParked(ticketId, vehicleOf(kind, plate, getTime(b)), spotId);
+                    break;
+                }
+                case EXIT:
+                    parking.restoreExit(getString(b), getTime(b));
+                    break;
+                case FINE: {
+                    Fine fine = readFine(b);
+                    finesByKey.put(fine.getPlateNumber() + "@" + fine.getIssuedAt(), fine);
+                    parking.restoreFine(fine);
+                    break;
+                }
+                case FINES_ARCHIVED:
+                    // already in fines-archive.log, just drop them from memory again
+                    parking.getFineLedger().archivePaidBefore(getTime(b), f -> { });
+                    break;
+                case PAYMENT: {
+                    String id = getString(b);
+                    String plate = getString(b);
+                    double fee = b.getDouble();
+                    double finePaid = b.getDouble();
+                    LocalDateTime paidAt = getTime(b);
+                    Fine paidFine = b.get() == 1 ? finesByKey.get(plate + "@" + getTime(b)) : null;
+                    payments.restorePayment(new Payment(id, plate, fee, finePaid, paidAt), paidFine);
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown journal record type " + type);
+            }
+        }
+    }
+}
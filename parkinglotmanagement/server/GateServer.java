@@ -0,0 +1,250 @@
+package server;
+
+import model.*;
+import service.AppContext;
+import service.ParkingService;
+import service.ReportService;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Headless front end for barrier controllers and pay stations.
+ * Plain-text line protocol over TCP: one request line in, one response line out,
+ * many requests per connection.
+ *
+ *   PARK <CAR|SUV|MOTORCYCLE|HANDICAPPED> <plate>   -> OK <ticketId> <spotId> <spotType>
+ *   EXIT <plate>                                    -> OK <ticketId> <hours> <fee> <fine> <total>
+ *   QUOTE <plate>                                   -> OK <ticketId> <hours> <fee> <fine> <total>  (ticket stays open)
+ *   PAY <plate> <fee> [FINE]                        -> OK <paymentId> <amount>
+ *   REPORT                                          -> OK <occupied> <total> <unpaidFines> <revenue>
+ *   QUIT                                            -> connection closed
+ *
+ * Failures answer "ERR <message>" and keep the connection open.
+ * PAY with FINE also settles the plate's oldest unpaid fine.
+ * Plates are letters, digits and '-', at most Vehicle.MAX_PLATE_LENGTH of them. A request
+ * line longer than MAX_LINE gets "ERR" and the connection is closed.
+ *
+ * Listens on the loopback interface unless given a bind address, so a lot's gates are
+ * only reachable from outside once someone asks for that.
+ *
+ * Each connection gets its own thread and blocking I/O. On a JVM with virtual threads
+ * that thread is virtual, so thousands of idle gates cost a few KB each; on older JVMs
+ * it falls back to a cached pool of platform threads.
+ */
+public class GateServer implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(GateServer.class.getName());
+
+    static final int MAX_LINE = 256;
+    private static final Pattern PLATE = Pattern.compile("[A-Za-z0-9-]{1," + Vehicle.MAX_PLATE_LENGTH + "}");
+
+    private final AppContext ctx;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Thread acceptor;
+
+    public GateServer(AppContext ctx, int port) throws IOException {
+        this(ctx, InetAddress.getLoopbackAddress(), port);
+    }
+
+    public GateServer(AppContext ctx, InetAddress bindAddress, int port) throws IOException {
+        this.ctx = ctx;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(bindAddress, port), 1024);
+        this.connections = newPerConnectionExecutor();
+        this.acceptor = new Thread(this::acceptLoop, "gate-acceptor");
+    }
+
+    public void start() {
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close(); // unblocks accept()
+        connections.shutdownNow();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true); // one small response per request
+                connections.execute(() -> serve(socket));
+            } catch (SocketException e) {
+                return; // server socket closed
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "gate-acceptor: accept failed", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = readLine(in)) != null) {
+                if (line.length() > MAX_LINE) {
+                    // no gate sends this; don't keep reading whatever it is
+                    out.write("ERR Request line longer than " + MAX_LINE + " characters\n");
+                    out.flush();
+                    return;
+                }
+                if (line.equalsIgnoreCase("QUIT")) return;
+                out.write(handle(line));
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            // gate went away mid-request; nothing to answer
+        }
+    }
+
+    // readLine that stops once a line passes MAX_LINE, handing back the first MAX_LINE + 1 characters
+    private static String readLine(Reader in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') break;
+            line.append((char) c);
+            if (line.length() > MAX_LINE) return line.toString();
+        }
+        if (c == -1 && line.length() == 0) return null;
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') line.setLength(end - 1);
+        return line.toString();
+    }
+
+    // public so an in-process gate can use the protocol without a socket
+    public String handle(String line) {
+        String[] parts = line.trim().split("\\s+");
+        try {
+            switch (parts[0].toUpperCase(Locale.ROOT)) {
+                case "PARK":   return park(parts);
+                case "EXIT":   return exit(parts);
+                case "QUOTE":  return quote(parts);
+                case "PAY":    return pay(parts);
+                case "REPORT": return report();
+                default:       return "ERR Unknown command: " + parts[0];
+            }
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return "ERR " + e.getMessage();
+        } catch (RuntimeException e) {
+            // a bug or a failed journal; the gate still gets its one line back
+            LOG.log(Level.WARNING, "Gate request failed: " + line, e);
+            return "ERR Internal error";
+        }
+    }
+
+    private String park(String[] parts) {
+        requireArgs(parts, 3, "PARK <type> <plate>");
+        // a full lot is routine at the gate; answer it without building an exception
+        ParkingService.ParkAttempt attempt = ctx.parkingService.tryParkVehicle(vehicle(parts[1], plate(parts[2])));
+        if (!attempt.isSuccess()) return "ERR " + attempt.status.describe(parts[2]);
+        Ticket t = attempt.ticket;
+        return "OK " + t.getTicketId() + " " + t.getSpot().getSpotId() + " " + t.getSpot().getType();
+    }
+
+    private String exit(String[] parts) {
+        requireArgs(parts, 2, "EXIT <plate>");
+        ParkingService.ExitAttempt attempt = ctx.parkingService.tryExitVehicle(plate(parts[1]));
+        if (!attempt.isSuccess()) return "ERR " + attempt.status.describe(parts[1]);
+        ParkingService.ExitResult r = attempt.result;
+        double fine = r.fine == null ? 0 : r.fine.getAmount();
+        return String.format(Locale.ROOT, "OK %s %d %.2f %.2f %.2f",
+                r.ticket.getTicketId(), r.hoursStayed, r.parkingFee, fine, r.totalDue());
+    }
+
+    private String quote(String[] parts) {
+        requireArgs(parts, 2, "QUOTE <plate>");
+        ParkingService.ExitQuote q = ctx.parkingService.quoteExit(plate(parts[1]), LocalDateTime.now());
+        return String.format(Locale.ROOT, "OK %s %d %.2f %.2f %.2f",
+                q.ticket.getTicketId(), q.hoursStayed, q.parkingFee, q.fineAmount, q.totalDue());
+    }
+
+    private String pay(String[] parts) {
+        requireArgs(parts, 3, "PAY <plate> <fee> [FINE]");
+        String plate = plate(parts[1]);
+        double fee = Double.parseDouble(parts[2]);
+        // also turns away NaN and Infinity, which parseDouble accepts
+        if (!(Double.isFinite(fee) && fee >= 0)) throw new IllegalArgumentException("Invalid fee: " + parts[2]);
+
+        Fine fine = null;
+        if (parts.length > 3 && parts[3].equalsIgnoreCase("FINE")) {
+            List<Fine> open = ctx.parkingService.getFineLedger().getUnpaidFines(plate);
+            if (open.isEmpty()) throw new IllegalStateException("No unpaid fine for: " + plate);
+            fine = open.get(0);
+        }
+        Payment p = ctx.paymentService.recordPayment(plate, fee, fine);
+        return String.format(Locale.ROOT, "OK %s %.2f", p.getPaymentId(), p.getTotalAmount());
+    }
+
+    private String report() {
+        ReportService.OccupancySummary occ = ctx.reportService.getOccupancySummary();
+        return String.format(Locale.ROOT, "OK %d %d %d %.2f",
+                occ.occupied, occ.total, ctx.reportService.countOutstandingFines(),
+                ctx.paymentService.getTotalRevenue());
+    }
+
+    private static void requireArgs(String[] parts, int n, String usage) {
+        if (parts.length < n) throw new IllegalArgumentException("Usage: " + usage);
+    }
+
+    private static String plate(String plate) {
+        if (!PLATE.matcher(plate).matches()) throw new IllegalArgumentException("Invalid plate: " + plate);
+        return plate;
+    }
+
+    private static Vehicle vehicle(String type, String plate) {
+        switch (type.toUpperCase(Locale.ROOT)) {
+            case "CAR":         return new Car(plate);
+            case "SUV":         return new SUV(plate);
+            case "MOTORCYCLE":  return new Motorcycle(plate);
+            case "HANDICAPPED": return new HandicappedVehicle(plate);
+            default: throw new IllegalArgumentException("Unknown vehicle type: " + type);
+        }
+    }
+
+    /**
+     * Virtual thread per task where the JVM has it (21+), looked up reflectively so
+     * the project still compiles and runs on 17.
+     */
+    static ExecutorService newPerConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                // small stacks: a gate connection only ever runs handle()
+                Thread t = new Thread(null, r, "gate-conn", 256 * 1024);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
\ No newline at end of file
@@ -1,7 +1,134 @@
 package service;
 
+import event.EventBus;
+import event.ListenerDispatcher;
+import history.HistoryStore;
+import metrics.Metrics;
+import model.Floor;
+import persistence.LayoutFile;
+import persistence.ParkingJournal;
+import strategy.IdStrategy;
+import strategy.SnowflakeIdStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 public class AppContext {
-    public final ParkingService parkingService = new ParkingService();
+    private static final Logger LOG = Logger.getLogger(AppContext.class.getName());
+
+    public final ParkingService parkingService;
     public final PaymentService paymentService = new PaymentService();
-    public final ReportService reportService = new ReportService(parkingService, paymentService);
+    public final ReportService reportService;
+    public final Metrics metrics = new Metrics();
+    public final EventBus events = new EventBus(4096);
+    public final ListenerDispatcher listeners = new ListenerDispatcher(); // UI listeners, on one bus thread
+    public final ParkingJournal journal; // null when running without persistence
+    public final HistoryStore history;
+
+    public AppContext() {
+        this(Paths.get("parking-data"));
+    }
+
+    // dataDir == null keeps everything in memory only
+    public AppContext(Path dataDir) {
+        this(dataDir, layoutFromProperty());
+    }
+
+    // floors == null uses the default lot layout
+    public AppContext(Path dataDir, List<Floor> floors) {
+        parkingService = floors == null ? new ParkingService() : new ParkingService(floors);
+        reportService = new ReportService(parkingService, paymentService);
+
+        // each gate node needs its own ID (0..1023) so ticket and payment IDs never clash across nodes
+        IdStrategy ids = new SnowflakeIdStrategy(Integer.getInteger("parking.nodeId", 0));
+        parkingService.setIdStrategy(ids);
+        paymentService.setIdStrategy(ids);
+        paymentService.setFineLedger(parkingService.getFineLedger());
+        parkingService.setMetrics(metrics);
+        paymentService.setMetrics(metrics);
+        metrics.registerMBean();
+        parkingService.setEventBus(events);
+        paymentService.setEventBus(events);
+        events.subscribe("listeners", listeners);
+
+        journal = dataDir == null ? null : openJournal(dataDir);
+
+        // seeded from the floors' live counters, so it has to start after the journal replay
+        history = new HistoryStore(parkingService.getFloors(), LocalDateTime.now());
+        reportService.setHistory(history);
+        events.subscribe("history", history);
+    }
+
+    // -Dparking.layout=<file> loads the lot from a LayoutFile instead of the default layout
+    private static List<Floor> layoutFromProperty() {
+        String file = System.getProperty("parking.layout");
+        if (file == null) return null;
+        try {
+            return LayoutFile.read(Paths.get(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read lot layout " + file, e);
+        }
+    }
+
+    private ParkingJournal openJournal(Path dataDir) {
+        ParkingJournal journal;
+        try {
+            journal = ParkingJournal.open(dataDir, parkingService, paymentService, 5);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover parking state from " + dataDir, e);
+        }
+        scheduleFineArchiving(journal, Integer.getInteger("parking.fineRetentionDays", 90));
+        scheduleCheckpoints(journal, Long.getLong("parking.journalCheckpointBytes", 64L << 20));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                journal.close();
+            } catch (IOException ignored) {
+                // nothing left to do while the JVM is going down
+            }
+        }));
+        return journal;
+    }
+
+    // Paid fines older than the retention window go to disk once a day, so the heap stays bounded
+    private void scheduleFineArchiving(ParkingJournal journal, int retentionDays) {
+        ScheduledExecutorService archiver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fine-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        archiver.scheduleAtFixedRate(() -> {
+            try {
+                journal.archivePaidFines(LocalDateTime.now().minusDays(retentionDays));
+            } catch (RuntimeException e) {
+                // an uncaught throw would cancel the schedule for good; the fines wait for tomorrow's run
+                LOG.log(Level.WARNING, "Fine archiving failed", e);
+            }
+        }, 0, 1, TimeUnit.DAYS);
+    }
+
+    // Once a minute, fold the journal into the snapshot if it has grown past maxBytes, so it never grows without bound
+    private void scheduleCheckpoints(ParkingJournal journal, long maxBytes) {
+        ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-checkpointer");
+            t.setDaemon(true);
+            return t;
+        });
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                journal.checkpointIfLarger(maxBytes);
+            } catch (IOException | RuntimeException e) {
+                // keep the schedule alive; the journals stay on disk and the next run folds them all
+                LOG.log(Level.WARNING, "Journal checkpoint failed", e);
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package service;
+
+import model.Fine;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * All fines still held in memory, indexed three ways:
+ * by issue order (for history and paging), by plate (for exit-time lookups)
+ * and an unpaid-only view, so outstanding-fine queries never touch paid history.
+ *
+ * Each fine gets a sequence number when it is added; that number is the page cursor.
+ */
+public class FineLedger {
+
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final Map<Fine, Long> seqOf = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Fine> all = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Fine> unpaid = new ConcurrentSkipListMap<>();
+    private final Map<String, List<Fine>> byPlate = new ConcurrentHashMap<>();
+    // kept alongside unpaid: ConcurrentSkipListMap.size() walks the whole map
+    private final AtomicInteger unpaidCount = new AtomicInteger();
+
+    public void add(Fine fine) {
+        long seq = nextSeq.getAndIncrement();
+        seqOf.put(fine, seq);
+        all.put(seq, fine);
+        if (!fine.isPaid() && unpaid.put(seq, fine) == null) unpaidCount.incrementAndGet();
+        byPlate.computeIfAbsent(fine.getPlateNumber(), p -> new CopyOnWriteArrayList<>()).add(fine);
+    }
+
+    /** Marks the fine paid and drops it from the unpaid view. */
+    public void markPaid(Fine fine) {
+        fine.markPaid();
+        Long seq = seqOf.get(fine);
+        if (seq != null && unpaid.remove(seq) != null) unpaidCount.decrementAndGet(); // once, however often it is paid
+    }
+
+    public Collection<Fine> getAll() {
+        return Collections.unmodifiableCollection(all.values());
+    }
+
+    public Collection<Fine> getUnpaid() {
+        return Collections.unmodifiableCollection(unpaid.values());
+    }
+
+    public int getUnpaidCount() {
+        return unpaidCount.get();
+    }
+
+    /** Unpaid fines from sequence number fromSeq onwards, oldest first. */
+    public NavigableMap<Long, Fine> getUnpaidFrom(long fromSeq) {
+        return Collections.unmodifiableNavigableMap(unpaid.tailMap(fromSeq, true));
+    }
+
+    public List<Fine> getUnpaidFines(String plateNumber) {
+        List<Fine> fines = byPlate.get(plateNumber);
+        if (fines == null) return Collections.emptyList();
+        List<Fine> open = new ArrayList<>();
+        for (Fine f : fines) {
+            if (!f.isPaid()) open.add(f);
+        }
+        return open;
+    }
+
+    /**
+     * Removes paid fines issued before cutoff from memory, handing each one to archive first.
+     * Unpaid fines are never archived, however old.
+     */
+    public int archivePaidBefore(LocalDateTime cutoff, Consumer<Fine> archive) {
+        int archived = 0;
+        for (Iterator<Map.Entry<Long, Fine>> it = all.entrySet().iterator(); it.hasNext(); ) {
+            Fine f = it.next().getValue();
+            if (!f.getIssuedAt().isBefore(cutoff)) break; // issue order == time order
+            if (!f.isPaid()) continue;
+
+            archive.accept(f);
+            it.remove();
+            seqOf.remove(f);
+            byPlate.computeIfPresent(f.getPlateNumber(), (p, list) -> {
+                list.remove(f);
+                return list.isEmpty() ? null : list;
+            });
+            archived++;
+        }
+        return archived;
+    }
+}
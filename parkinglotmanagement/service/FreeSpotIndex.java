@@ -0,0 +1,358 @@
+package service;
+
+import model.Floor;
+import model.ParkingSpot;
+import model.SpotType;
+import model.Vehicle;
+import strategy.AllocationStrategy;
+import strategy.FirstFreeAllocation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Free-spot index keyed by SpotType.
+ * Every spot gets an ordinal in floor order, and a rank from the AllocationStrategy.
+ * Each SpotType keeps its free spots in a min-heap by rank, so the next spot to hand out
+ * is at the top and taking or returning one is O(log n). With the default strategy the
+ * rank is the ordinal, so a vehicle gets the first free bay in floor order, with reserved
+ * and handicapped bays after every ordinary one.
+ *
+ * Each SpotType has its own lock (lock striping). A claim only locks the
+ * types the vehicle can use, always in enum order, so a car gate and a
+ * handicapped gate never wait on each other.
+ */
+class FreeSpotIndex {
+
+    private static final SpotType[] TYPES = SpotType.values();
+    private static final int HOLDABLE = SpotType.RESERVED.ordinal(); // the only type that can be held
+
+    private final List<Floor> floors;
+    // global ordinal of each floor's first spot; ordinal = floorStart[floor position] + index in floor
+    private final int[] floorStart;
+    private final Map<Floor, Integer> floorPosition = new IdentityHashMap<>();
+    private final int spotCount;
+    private final FreeHeap[] freeByType = new FreeHeap[TYPES.length];
+    private final int[] rank;
+    private final int[] heapPosition; // where each spot sits in its type's heap; -1 = not free
+    private final ReentrantLock[] locks = new ReentrantLock[TYPES.length];
+    private final Map<Class<?>, SpotType[]> compatibleTypes = new ConcurrentHashMap<>();
+    private final Map<Class<?>, SpotType[][]> typeGroups = new ConcurrentHashMap<>();
+    private volatile AllocationStrategy strategy = new FirstFreeAllocation();
+    // bays kept back for a reservation: never handed out by claimFor, not made free on release.
+    // Only RESERVED bays are ever held, so the RESERVED lock guards it.
+    private final BitSet held = new BitSet();
+    // held bays nobody is parked in; written under the RESERVED lock, read without it
+    private volatile int heldEmpty;
+
+    FreeSpotIndex(List<Floor> floors) {
+        this.floors = floors;
+        this.floorStart = new int[floors.size()];
+        for (int t = 0; t < TYPES.length; t++) locks[t] = new ReentrantLock();
+        int ordinal = 0;
+        for (int f = 0; f < floors.size(); f++) {
+            Floor floor = floors.get(f);
+            floorStart[f] = ordinal;
+            floorPosition.put(floor, f);
+            ordinal += floor.getTotalCount();
+        }
+        this.spotCount = ordinal;
+        this.rank = new int[spotCount];
+        this.heapPosition = new int[spotCount];
+        rebuild();
+    }
+
+    AllocationStrategy getStrategy() {
+        return strategy;
+    }
+
+    /** Re-ranks every spot for the new strategy; gates wait for the few ms it takes. */
+    void setStrategy(AllocationStrategy strategy) {
+        for (ReentrantLock lock : locks) lock.lock();
+        try {
+            this.strategy = strategy;
+            typeGroups.clear();
+            rebuild();
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) locks[i].unlock();
+        }
+    }
+
+    // caller holds every lock, or is the constructor
+    private void rebuild() {
+        AllocationStrategy s = strategy;
+        int[] count = new int[TYPES.length];
+        int ordinal = 0;
+        for (int f = 0; f < floors.size(); f++) {
+            Floor floor = floors.get(f);
+            // index-based, so packed floors don't have to create a view per bay
+            for (int i = 0; i < floor.getTotalCount(); i++, ordinal++) {
+                rank[ordinal] = s.rank(floor, f, i, ordinal);
+                count[floor.getSpotType(i).ordinal()]++;
+            }
+        }
+        for (int t = 0; t < TYPES.length; t++) freeByType[t] = new FreeHeap(count[t]);
+        Arrays.fill(heapPosition, -1);
+        ordinal = 0;
+        for (Floor floor : floors) {
+            for (int i = 0; i < floor.getTotalCount(); i++, ordinal++) {
+                if (floor.isSpotAvailable(i) && !held.get(ordinal)) {
+                    freeByType[floor.getSpotType(i).ordinal()].add(ordinal);
+                }
+            }
+        }
+    }
+
+    /** Every spot in floor order, as a read-only list indexed by ordinal. */
+    List<ParkingSpot> allSpots() {
+        return new AbstractList<ParkingSpot>() {
+            @Override
+            public ParkingSpot get(int ordinal) {
+                return spotAt(ordinal);
+            }
+
+            @Override
+            public int size() {
+                return spotCount;
+            }
+        };
+    }
+
+    ParkingSpot spotAt(int ordinal) {
+        int f = Arrays.binarySearch(floorStart, ordinal);
+        if (f < 0) f = -f - 2;
+        // step past empty floors that start at the same ordinal
+        while (f + 1 < floorStart.length && floorStart[f + 1] == ordinal) f++;
+        return floors.get(f).getSpot(ordinal - floorStart[f]);
+    }
+
+    int ordinalOf(ParkingSpot spot) {
+        return floorStart[floorPosition.get(spot.getFloor())] + spot.getIndexInFloor();
+    }
+
+    /** Ordinals of every bay of this type, in floor order. */
+    int[] ordinalsOf(SpotType type) {
+        int[] out = new int[16];
+        int n = 0, ordinal = 0;
+        for (Floor floor : floors) {
+            for (int i = 0; i < floor.getTotalCount(); i++, ordinal++) {
+                if (floor.getSpotType(i) != type) continue;
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Finds the lowest-floor free spot the vehicle can use and assigns the vehicle to it.
+     * Returns null when every compatible spot is taken.
+     */
+    ParkingSpot claimFor(Vehicle vehicle) {
+        SpotType[] types = compatibleTypesOf(vehicle);
+        for (SpotType type : types) locks[type.ordinal()].lock();
+        try {
+            return claimLocked(vehicle);
+        } finally {
+            for (int i = types.length - 1; i >= 0; i--) locks[types[i].ordinal()].unlock();
+        }
+    }
+
+    /**
+     * claimFor for a whole burst of vehicles under a single acquisition of every stripe.
+     * The result lines up with the input; null means no spot for that vehicle.
+     */
+    ParkingSpot[] claimAll(List<Vehicle> vehicles) {
+        ParkingSpot[] claimed = new ParkingSpot[vehicles.size()];
+        for (ReentrantLock lock : locks) lock.lock();
+        try {
+            for (int i = 0; i < claimed.length; i++) {
+                Vehicle v = vehicles.get(i);
+                claimed[i] = claimLocked(v);
+            }
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) locks[i].unlock();
+        }
+        return claimed;
+    }
+
+    // caller holds the locks of every type the vehicle can use
+    private ParkingSpot claimLocked(Vehicle vehicle) {
+        int best = -1;
+        for (SpotType[] group : typeGroupsOf(vehicle)) {
+            for (SpotType type : group) {
+                int top = freeByType[type.ordinal()].peek();
+                if (top >= 0 && (best < 0 || before(top, best))) {
+                    best = top;
+                }
+            }
+            if (best >= 0) break; // later groups only when this whole group is full
+        }
+        if (best < 0) return null;
+
+        ParkingSpot spot = spotAt(best);
+        if (!spot.tryAssignVehicle(vehicle)) {
+            throw new IllegalStateException("Free-spot index out of sync at " + spot.getSpotId());
+        }
+        freeByType[spot.getType().ordinal()].remove(best);
+        return spot;
+    }
+
+    // rank order, ties broken by ordinal so allocation is repeatable
+    private boolean before(int a, int b) {
+        return rank[a] < rank[b] || (rank[a] == rank[b] && a < b);
+    }
+
+    /** Assigns the vehicle to one particular spot, e.g. when replaying a journal. */
+    boolean claim(ParkingSpot spot, Vehicle vehicle) {
+        int t = spot.getType().ordinal();
+        locks[t].lock();
+        try {
+            if (!spot.tryAssignVehicle(vehicle)) return false;
+            int ordinal = ordinalOf(spot);
+            freeByType[t].remove(ordinal);
+            if (t == HOLDABLE && held.get(ordinal)) heldEmpty--;
+            return true;
+        } finally {
+            locks[t].unlock();
+        }
+    }
+
+    /** Empties the spot and makes it available to the next claim. */
+    void release(ParkingSpot spot) {
+        int t = spot.getType().ordinal();
+        locks[t].lock();
+        try {
+            releaseLocked(spot);
+        } finally {
+            locks[t].unlock();
+        }
+    }
+
+    /** release for a whole burst of exits under a single acquisition of every stripe. */
+    void releaseAll(List<ParkingSpot> toRelease) {
+        for (ReentrantLock lock : locks) lock.lock();
+        try {
+            for (ParkingSpot spot : toRelease) releaseLocked(spot);
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) locks[i].unlock();
+        }
+    }
+
+    private void releaseLocked(ParkingSpot spot) {
+        int t = spot.getType().ordinal();
+        int ordinal = ordinalOf(spot);
+        spot.removeVehicle();
+        // only the RESERVED lock guards held, and only RESERVED bays are ever in it
+        if (t == HOLDABLE && held.get(ordinal)) {
+            heldEmpty++; // stays out of the free set until its hold ends
+            return;
+        }
+        freeByType[t].add(ordinal);
+    }
+
+    /** Keeps the bay back from claimFor; claim(spot, vehicle) can still take it. */
+    void hold(int ordinal) {
+        ParkingSpot spot = spotAt(ordinal);
+        if (spot.getType() != SpotType.RESERVED) {
+            throw new IllegalStateException("Only reserved bays can be held: " + spot.getSpotId());
+        }
+        locks[HOLDABLE].lock();
+        try {
+            if (held.get(ordinal)) return;
+            held.set(ordinal);
+            freeByType[HOLDABLE].remove(ordinal);
+            if (spot.isAvailable()) heldEmpty++;
+        } finally {
+            locks[HOLDABLE].unlock();
+        }
+    }
+
+    void unhold(int ordinal) {
+        ParkingSpot spot = spotAt(ordinal);
+        locks[HOLDABLE].lock();
+        try {
+            if (!held.get(ordinal)) return;
+            held.clear(ordinal);
+            if (spot.isAvailable()) {
+                heldEmpty--;
+                freeByType[HOLDABLE].add(ordinal);
+            }
+        } finally {
+            locks[HOLDABLE].unlock();
+        }
+    }
+
+    /** Held bays nobody is parked in: unoccupied, but not free to walk-ins. A counter, read without locking. */
+    int heldEmptyCount() {
+        return heldEmpty;
+    }
+
+    SpotType[] compatibleTypesOf(Vehicle vehicle) {
+        // canParkIn only depends on the vehicle class, so the matrix is built once per class
+        return compatibleTypes.computeIfAbsent(vehicle.getClass(), c ->
+                Arrays.stream(TYPES).filter(vehicle::canParkIn).toArray(SpotType[]::new));
+    }
+
+    private SpotType[][] typeGroupsOf(Vehicle vehicle) {
+        return typeGroups.computeIfAbsent(vehicle.getClass(), c -> strategy.typeGroups(compatibleTypesOf(vehicle)));
+    }
+
+    // free spots of one type as a binary min-heap on (rank, ordinal) packed into one long, so sifting
+    // compares heap entries without looking anything up; heapPosition finds a spot to take it out
+    private final class FreeHeap {
+        private final long[] heap;
+        private int size;
+
+        FreeHeap(int capacity) {
+            heap = new long[capacity];
+        }
+
+        int peek() {
+            return size == 0 ? -1 : (int) heap[0];
+        }
+
+        void add(int ordinal) {
+            if (heapPosition[ordinal] >= 0) return;
+            siftUp(size++, ((long) rank[ordinal] << 32) | ordinal);
+        }
+
+        void remove(int ordinal) {
+            int i = heapPosition[ordinal];
+            if (i < 0) return;
+            heapPosition[ordinal] = -1;
+            long last = heap[--size];
+            if (i == size) return;
+            siftDown(i, last);
+            if (heap[i] == last) siftUp(i, last);
+        }
+
+        private void siftUp(int i, long key) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= key) break;
+                place(i, heap[parent]);
+                i = parent;
+            }
+            place(i, key);
+        }
+
+        private void siftDown(int i, long key) {
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+                if (heap[child] >= key) break;
+                place(i, heap[child]);
+                i = child;
+            }
+            place(i, key);
+        }
+
+        private void place(int i, long key) {
+            heap[i] = key;
+            heapPosition[(int) key] = i;
+        }
+    }
+}
@@ -1,22 +1,56 @@
 package service;
 
+import event.EventBus;
+import metrics.Metrics;
 import model.*;
+import strategy.AllocationStrategy;
+import strategy.CompiledTariff;
 import strategy.FineStrategy;
-import strategy.FixedFineStrategy;
+import strategy.IdStrategy;
+import strategy.SnowflakeIdStrategy;
+import strategy.Tariff;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 public class ParkingService {
 
-    private final List<Floor> floors = new ArrayList<>();
-    private final Map<String, Ticket> activeTicketsByPlate = new HashMap<>();
-    private final List<Fine> fines = new ArrayList<>();
+    // Safe to call from many gate terminals at once: plates are claimed through a
+    // concurrent set and spots through the per-SpotType locks in FreeSpotIndex.
+    private final List<Floor> floors;
+    private final Map<String, Ticket> activeTicketsByPlate = new ConcurrentHashMap<>();
+    // same tickets kept in plate order, so reports can page through them without sorting
+    private final ConcurrentSkipListMap<String, Ticket> activeTicketsSorted = new ConcurrentSkipListMap<>();
+    private final Set<String> platesInLot = ConcurrentHashMap.newKeySet();
+    private final FineLedger fines = new FineLedger();
+    private final FreeSpotIndex freeSpots;
+    private final ReservationBook reservations;
+    private final Waitlist waitlist;
+    // pay-station quotes by plate, each good until the stay's next billed hour starts
+    private final Map<String, ExitQuote> quotes = new ConcurrentHashMap<>();
 
-    private FineStrategy fineStrategy = new FixedFineStrategy();
+    private volatile StateJournal journal = StateJournal.NONE;
+    private volatile CompiledTariff tariff = Tariff.flat().compile();
+    private volatile IdStrategy idStrategy = new SnowflakeIdStrategy(0);
+    private volatile Metrics metrics = new Metrics();
+    private volatile EventBus events = EventBus.NONE;
 
     public ParkingService() {
+        this(defaultFloors());
+    }
+
+    public ParkingService(List<Floor> floors) {
+        this.floors = new ArrayList<>(floors);
+        this.freeSpots = new FreeSpotIndex(this.floors);
+        this.reservations = new ReservationBook(freeSpots, idStrategy);
+        this.waitlist = new Waitlist(freeSpots, reservations);
+    }
+
+    private static List<Floor> defaultFloors() {
         // Default lot: 2 floors. Edit counts/rates/types as you like.
         Floor f1 = new Floor(1);
         f1.addSpot(new ParkingSpot("F1-C1", SpotType.COMPACT));
@@ -30,23 +64,81 @@ public class ParkingService {
         f2.addSpot(new ParkingSpot("F2-R2", SpotType.REGULAR));
         f2.addSpot(new ParkingSpot("F2-V1", SpotType.RESERVED));
 
-        floors.add(f1);
-        floors.add(f2);
+        return List.of(f1, f2);
     }
 
+    // keeps the current fees, only the fines change
     public void setFineStrategy(FineStrategy strategy) {
-        this.fineStrategy = strategy;
+        this.tariff = tariff.withFines(strategy);
     }
 
     public FineStrategy getFineStrategy() {
-        return fineStrategy;
+        return tariff.getFineStrategy();
+    }
+
+    public void setTariff(Tariff tariff) {
+        this.tariff = tariff.compile();
+    }
+
+    public CompiledTariff getTariff() {
+        return tariff;
+    }
+
+    // applies to the next park; vehicles already in are not moved
+    public void setAllocationStrategy(AllocationStrategy strategy) {
+        freeSpots.setStrategy(strategy);
+    }
+
+    public AllocationStrategy getAllocationStrategy() {
+        return freeSpots.getStrategy();
+    }
+
+    public void setIdStrategy(IdStrategy idStrategy) {
+        this.idStrategy = idStrategy;
+        reservations.setIdStrategy(idStrategy);
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setEventBus(EventBus events) {
+        this.events = events == null ? EventBus.NONE : events;
+    }
+
+    public void setJournal(StateJournal journal) {
+        this.journal = journal == null ? StateJournal.NONE : journal;
+    }
+
+    public ParkingSpot getSpot(String spotId) {
+        for (Floor floor : floors) {
+            ParkingSpot spot = floor.findSpot(spotId);
+            if (spot != null) return spot;
+        }
+        return null;
     }
 
     public List<Floor> getFloors() {
         return floors;
     }
 
-    public List<Fine> getFines() {
+    public Collection<Fine> getFines() {
+        return fines.getAll();
+    }
+
+    public ReservationBook getReservations() {
+        return reservations;
+    }
+
+    public Waitlist getWaitlist() {
+        return waitlist;
+    }
+
+    public FineLedger getFineLedger() {
         return fines;
     }
 
@@ -54,57 +146,515 @@ public class ParkingService {
         return activeTicketsByPlate.values();
     }
 
+    public int getActiveTicketCount() {
+        return activeTicketsByPlate.size();
+    }
+
+    public NavigableMap<String, Ticket> getActiveTicketsByPlate() {
+        return Collections.unmodifiableNavigableMap(activeTicketsSorted);
+    }
+
+    /** Every spot in floor order; a spot's position in this list is a stable cursor for paging. */
+    public List<ParkingSpot> getAllSpots() {
+        return freeSpots.allSpots();
+    }
+
+    /** Free spots this vehicle could take right now, read from the floor counters without locking. */
+    public int getFreeCount(Vehicle vehicle) {
+        int free = 0;
+        for (SpotType type : freeSpots.compatibleTypesOf(vehicle)) {
+            for (Floor floor : floors) free += floor.getTotalCount(type) - floor.getOccupiedCount(type);
+            if (type == SpotType.RESERVED) free -= freeSpots.heldEmptyCount();
+        }
+        return free;
+    }
+
+    public Ticket getActiveTicket(String plateNumber) {
+        return activeTicketsByPlate.get(plateNumber);
+    }
+
     public Ticket parkVehicle(Vehicle vehicle) {
+        ParkAttempt attempt = tryParkVehicle(vehicle);
+        if (!attempt.isSuccess()) throw new IllegalStateException(attempt.status.describe(vehicle.getPlateNumber()));
+        return attempt.ticket;
+    }
+
+    /**
+     * parkVehicle for gates that expect a full lot: a refusal comes back as a status instead
+     * of an exception, and the refusals are shared instances, so turning a car away allocates nothing.
+     */
+    public ParkAttempt tryParkVehicle(Vehicle vehicle) {
+        long start = System.nanoTime();
+        try {
+            return park(vehicle);
+        } finally {
+            metrics.record(Metrics.Op.PARK, start);
+        }
+    }
+
+    private ParkAttempt park(Vehicle vehicle) {
         String plate = vehicle.getPlateNumber();
-        if (activeTicketsByPlate.containsKey(plate)) {
-            throw new IllegalStateException("Vehicle already parked: " + plate);
+        Vehicle.checkPlate(plate);
+        if (!platesInLot.add(plate)) {
+            metrics.recordFailure(Metrics.Op.PARK);
+            return ParkAttempt.ALREADY_PARKED;
         }
 
         ParkingSpot spot = findAvailableSpotFor(vehicle);
         if (spot == null) {
-            throw new IllegalStateException("No available spot for this vehicle type.");
+            platesInLot.remove(plate);
+            metrics.recordFailure(Metrics.Op.PARK);
+            metrics.recordRejection(freeSpots.compatibleTypesOf(vehicle));
+            return ParkAttempt.LOT_FULL;
         }
+        return new ParkAttempt(Status.OK, issue(vehicle, spot, vehicle.getEntryTime()));
+    }
 
-        spot.assignVehicle(vehicle);
-        String ticketId = "T-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        Ticket ticket = new Ticket(ticketId, vehicle, spot, vehicle.getEntryTime());
+    private Ticket issue(Vehicle vehicle, ParkingSpot spot, LocalDateTime entryTime) {
+        String ticketId = idStrategy.nextId("T-");
+        Ticket ticket = new Ticket(ticketId, vehicle, spot, entryTime);
 
-        activeTicketsByPlate.put(plate, ticket);
+        // journal before the ticket is visible, so an exit racing in can't put its EXIT ahead of this PARK
+        try {
+            journal.vehicleParked(ticket);
+        } catch (RuntimeException e) {
+            freeSpots.release(spot);
+            platesInLot.remove(vehicle.getPlateNumber());
+            throw e;
+        }
+        activeTicketsByPlate.put(vehicle.getPlateNumber(), ticket);
+        activeTicketsSorted.put(vehicle.getPlateNumber(), ticket);
+        events.vehicleParked(ticket);
         return ticket;
     }
 
+    // --- entry queue for a full lot ---
+
+    /**
+     * Parks the vehicle, or queues it when no compatible spot is free. The future completes
+     * with the ticket as soon as an exit frees a spot it can use; the stay is billed from that
+     * moment. Completion runs on the thread of the exit that made room, so keep dependent
+     * stages short or use the async variants. Cancelling the future leaves the queue.
+     */
+    public CompletableFuture<Ticket> parkOrWait(Vehicle vehicle) {
+        long start = System.nanoTime();
+        try {
+            return parkOrQueue(vehicle);
+        } finally {
+            metrics.record(Metrics.Op.PARK, start);
+        }
+    }
+
+    private CompletableFuture<Ticket> parkOrQueue(Vehicle vehicle) {
+        String plate = vehicle.getPlateNumber();
+        Vehicle.checkPlate(plate);
+        // the plate stays claimed while it waits, so it can't queue or park twice
+        if (!platesInLot.add(plate)) {
+            metrics.recordFailure(Metrics.Op.PARK);
+            throw new IllegalStateException((waitlist.isWaiting(plate) ? "Vehicle already waiting: " : "Vehicle already parked: ") + plate);
+        }
+        ParkingSpot spot = findAvailableSpotFor(vehicle);
+        if (spot != null) return CompletableFuture.completedFuture(issue(vehicle, spot, vehicle.getEntryTime()));
+
+        Waitlist.Waiter w = waitlist.enqueue(vehicle);
+        metrics.recordQueued(w.types, 1);
+        w.future.whenComplete((ticket, e) -> {
+            if (e != null && waitlist.remove(w)) leftQueue(w);
+        });
+        admitWaiting(); // a spot may have been freed between the failed claim and the enqueue
+        return w.future;
+    }
+
+    /** Takes a waiting vehicle out of the queue. False if it isn't waiting (or was just admitted). */
+    public boolean cancelWait(String plateNumber) {
+        Waitlist.Waiter w = waitlist.get(plateNumber);
+        return w != null && w.future.cancel(false);
+    }
+
+    // hands free spots to queued vehicles; called after every exit while anyone waits
+    private void admitWaiting() {
+        if (!waitlist.isEmpty()) finishAdmissions(waitlist.admit());
+    }
+
+    private void finishAdmissions(List<Waitlist.Waiter> admitted) {
+        for (Waitlist.Waiter w : admitted) {
+            metrics.recordQueued(w.types, -1);
+            metrics.record(Metrics.Op.WAITLIST, w.enqueuedNanos);
+            Ticket ticket;
+            try {
+                ticket = issue(w.vehicle, w.spot, LocalDateTime.now());
+            } catch (RuntimeException e) {
+                w.future.completeExceptionally(e);
+                continue;
+            }
+            // cancelled after admission took it off the queue: give the spot straight back
+            if (!w.future.complete(ticket)) undoPark(ticket);
+        }
+    }
+
+    private void leftQueue(Waitlist.Waiter w) {
+        platesInLot.remove(w.vehicle.getPlateNumber());
+        metrics.recordQueued(w.types, -1);
+        metrics.recordFailure(Metrics.Op.WAITLIST);
+    }
+
+    private void undoPark(Ticket ticket) {
+        String plate = ticket.getVehicle().getPlateNumber();
+        activeTicketsByPlate.remove(plate);
+        activeTicketsSorted.remove(plate);
+        quotes.remove(plate);
+        ticket.close(ticket.getEntryTime());
+        journal.vehicleExited(ticket);
+        freeSpots.release(ticket.getSpot());
+        platesInLot.remove(plate);
+        events.vehicleExited(ticket);
+        metrics.recordFailure(Metrics.Op.WAITLIST);
+        admitWaiting();
+    }
+
     public ExitResult exitVehicle(String plateNumber) {
-        Ticket ticket = activeTicketsByPlate.get(plateNumber);
-        if (ticket == null) throw new IllegalStateException("No active ticket for: " + plateNumber);
+        ExitAttempt attempt = tryExitVehicle(plateNumber);
+        if (!attempt.isSuccess()) throw new IllegalStateException(attempt.status.describe(plateNumber));
+        return attempt.result;
+    }
 
-        LocalDateTime exitTime = LocalDateTime.now();
+    /** exitVehicle with an unknown plate reported as a status rather than thrown. */
+    public ExitAttempt tryExitVehicle(String plateNumber) {
+        long start = System.nanoTime();
+        try {
+            return exit(plateNumber);
+        } finally {
+            metrics.record(Metrics.Op.EXIT, start);
+        }
+    }
+
+    private ExitAttempt exit(String plateNumber) {
+        // remove first so two exits for the same plate can't both close the ticket
+        Ticket ticket = activeTicketsByPlate.remove(plateNumber);
+        if (ticket == null) {
+            metrics.recordFailure(Metrics.Op.EXIT);
+            return ExitAttempt.NO_ACTIVE_TICKET;
+        }
+        activeTicketsSorted.remove(plateNumber);
+        quotes.remove(plateNumber);
+
+        ExitResult result = close(ticket, LocalDateTime.now());
+
+        // journal before the spot is freed, so the next PARK on it always lands after this EXIT
+        journal.vehicleExited(ticket);
+        if (result.fine != null) journal.fineIssued(result.fine);
+
+        freeSpots.release(ticket.getSpot());
+        platesInLot.remove(plateNumber);
+        events.vehicleExited(ticket);
+        if (result.fine != null) events.fineIssued(result.fine);
+
+        admitWaiting();
+        return new ExitAttempt(Status.OK, result);
+    }
+
+    private ExitResult close(Ticket ticket, LocalDateTime exitTime) {
         ticket.close(exitTime);
 
         long hoursStayed = Math.max(1, Duration.between(ticket.getEntryTime(), exitTime).toHours());
-        double parkingFee = hoursStayed * ticket.getSpot().getType().getHourlyRate();
+        CompiledTariff prices = tariff;
+        double parkingFee = prices.fee(ticket.getSpot().getType(), ticket.getEntryTime(), hoursStayed);
 
-        double fineAmt = fineStrategy.calculateFine(hoursStayed);
+        double fineAmt = prices.fine(hoursStayed);
         Fine fineObj = null;
         if (fineAmt > 0) {
-            fineObj = new Fine(plateNumber, fineAmt, "Over 24 hours stay", exitTime);
+            fineObj = new Fine(ticket.getVehicle().getPlateNumber(), fineAmt, "Over 24 hours stay", exitTime);
             fines.add(fineObj);
         }
+        return new ExitResult(ticket, hoursStayed, parkingFee, fineObj);
+    }
+
+    /**
+     * What exitVehicle would charge if the vehicle left at the given time, for pay stations.
+     * Read-only: the ticket stays open, the spot stays taken and no fine is issued.
+     * Takes no locks, and polls within the same billed hour get the cached quote back.
+     */
+    public ExitQuote quoteExit(String plateNumber, LocalDateTime at) {
+        long start = System.nanoTime();
+        try {
+            return quote(plateNumber, at);
+        } finally {
+            metrics.record(Metrics.Op.EXIT_QUOTE, start);
+        }
+    }
+
+    private ExitQuote quote(String plateNumber, LocalDateTime at) {
+        Ticket ticket = activeTicketsByPlate.get(plateNumber);
+        if (ticket == null) {
+            metrics.recordFailure(Metrics.Op.EXIT_QUOTE);
+            throw new IllegalStateException("No active ticket for: " + plateNumber);
+        }
+        CompiledTariff prices = tariff;
+        ExitQuote cached = quotes.get(plateNumber);
+        if (cached != null && cached.ticket == ticket && cached.tariff == prices && cached.covers(at)) return cached;
 
-        ticket.getSpot().removeVehicle();
-        activeTicketsByPlate.remove(plateNumber);
+        LocalDateTime entry = ticket.getEntryTime();
+        long hours = Duration.between(entry, at).toHours();
+        long hoursStayed = Math.max(1, hours);
+        ExitQuote quote = new ExitQuote(ticket, hoursStayed,
+                prices.fee(ticket.getSpot().getType(), entry, hoursStayed), prices.fine(hoursStayed), prices,
+                hours <= 1 ? entry : entry.plusHours(hours), entry.plusHours(Math.max(2, hours + 1)));
+        if (at.isBefore(entry)) return quote; // clock skew; not worth caching
 
-        return new ExitResult(ticket, hoursStayed, parkingFee, fineObj);
+        quotes.put(plateNumber, quote);
+        // the vehicle may have left while we were pricing it; don't keep a quote for a closed ticket
+        if (activeTicketsByPlate.get(plateNumber) != ticket) quotes.remove(plateNumber, quote);
+        return quote;
+    }
+
+    // --- batch entry/exit for ANPR camera bursts ---
+
+    /**
+     * Parks a burst of vehicles. Spots are claimed under one lock acquisition
+     * and the journal gets the whole group in one append.
+     * One outcome per vehicle, in input order; a failure for one vehicle doesn't affect the rest.
+     * A malformed plate rejects the whole burst before any of it is parked.
+     */
+    public List<ParkOutcome> parkVehicles(List<Vehicle> vehicles) {
+        long start = System.nanoTime();
+        for (Vehicle v : vehicles) Vehicle.checkPlate(v.getPlateNumber());
+        ParkOutcome[] outcomes = new ParkOutcome[vehicles.size()];
+        List<Vehicle> admitted = new ArrayList<>(vehicles.size());
+        List<Integer> positions = new ArrayList<>(vehicles.size());
+        for (int i = 0; i < outcomes.length; i++) {
+            Vehicle v = vehicles.get(i);
+            if (platesInLot.add(v.getPlateNumber())) {
+                admitted.add(v);
+                positions.add(i);
+            } else {
+                metrics.recordFailure(Metrics.Op.PARK_BATCH);
+                outcomes[i] = new ParkOutcome(v, null, Status.ALREADY_PARKED);
+            }
+        }
+
+        ParkingSpot[] spots = findAvailableSpotsFor(admitted);
+        IdStrategy ids = idStrategy;
+        List<Ticket> parked = new ArrayList<>(admitted.size());
+        for (int j = 0; j < spots.length; j++) {
+            Vehicle v = admitted.get(j);
+            if (spots[j] == null) {
+                platesInLot.remove(v.getPlateNumber());
+                metrics.recordFailure(Metrics.Op.PARK_BATCH);
+                metrics.recordRejection(freeSpots.compatibleTypesOf(v));
+                outcomes[positions.get(j)] = new ParkOutcome(v, null, Status.LOT_FULL);
+                continue;
+            }
+            Ticket ticket = new Ticket(ids.nextId("T-"), v, spots[j], v.getEntryTime());
+            parked.add(ticket);
+            outcomes[positions.get(j)] = new ParkOutcome(v, ticket, Status.OK);
+        }
+        // as in issue(): journaled before any of the tickets can be exited
+        try {
+            journal.vehiclesParked(parked);
+        } catch (RuntimeException e) {
+            for (Ticket t : parked) {
+                freeSpots.release(t.getSpot());
+                platesInLot.remove(t.getVehicle().getPlateNumber());
+            }
+            throw e;
+        }
+        for (Ticket t : parked) {
+            activeTicketsByPlate.put(t.getVehicle().getPlateNumber(), t);
+            activeTicketsSorted.put(t.getVehicle().getPlateNumber(), t);
+        }
+        events.vehiclesParked(parked);
+        metrics.record(Metrics.Op.PARK_BATCH, start);
+        return Arrays.asList(outcomes);
+    }
+
+    /** Exits a burst of plates; same batching as parkVehicles. One outcome per plate, in input order. */
+    public List<ExitOutcome> exitVehicles(List<String> plateNumbers) {
+        long start = System.nanoTime();
+        List<ExitOutcome> outcomes = new ArrayList<>(plateNumbers.size());
+        List<Ticket> closed = new ArrayList<>(plateNumbers.size());
+        List<Fine> issued = new ArrayList<>();
+        LocalDateTime exitTime = LocalDateTime.now();
+
+        for (String plate : plateNumbers) {
+            Ticket ticket = activeTicketsByPlate.remove(plate);
+            if (ticket == null) {
+                metrics.recordFailure(Metrics.Op.EXIT_BATCH);
+                outcomes.add(new ExitOutcome(plate, null, Status.NO_ACTIVE_TICKET));
+                continue;
+            }
+            activeTicketsSorted.remove(plate);
+            quotes.remove(plate);
+            ExitResult result = close(ticket, exitTime);
+            closed.add(ticket);
+            if (result.fine != null) issued.add(result.fine);
+            outcomes.add(new ExitOutcome(plate, result, Status.OK));
+        }
+
+        journal.vehiclesExited(closed, issued);
+        List<ParkingSpot> spots = new ArrayList<>(closed.size());
+        for (Ticket t : closed) spots.add(t.getSpot());
+        freeSpots.releaseAll(spots);
+        for (Ticket t : closed) platesInLot.remove(t.getVehicle().getPlateNumber());
+        events.vehiclesExited(closed);
+        for (Fine f : issued) events.fineIssued(f);
+        admitWaiting();
+
+        metrics.record(Metrics.Op.EXIT_BATCH, start);
+        return outcomes;
+    }
+
+    // --- journal replay: same state changes as above, without journaling them again ---
+
+    public Ticket restoreParked(String ticketId, Vehicle vehicle, String spotId) {
+        ParkingSpot spot = getSpot(spotId);
+        if (spot == null) throw new IllegalStateException("Unknown spot in journal: " + spotId);
+        if (!platesInLot.add(vehicle.getPlateNumber()) || !freeSpots.claim(spot, vehicle)) {
+            throw new IllegalStateException("Journal parks " + vehicle.getPlateNumber() + " in a taken spot " + spotId);
+        }
+        Ticket ticket = new Ticket(ticketId, vehicle, spot, vehicle.getEntryTime());
+        activeTicketsByPlate.put(vehicle.getPlateNumber(), ticket);
+        activeTicketsSorted.put(vehicle.getPlateNumber(), ticket);
+        return ticket;
+    }
+
+    public void restoreExit(String plateNumber, LocalDateTime exitTime) {
+        Ticket ticket = activeTicketsByPlate.remove(plateNumber);
+        if (ticket == null) throw new IllegalStateException("Journal exits unknown plate: " + plateNumber);
+        activeTicketsSorted.remove(plateNumber);
+        quotes.remove(plateNumber);
+        ticket.close(exitTime);
+        freeSpots.release(ticket.getSpot());
+        platesInLot.remove(plateNumber);
+    }
+
+    public void restoreFine(Fine fine) {
+        fines.add(fine);
     }
 
     private ParkingSpot findAvailableSpotFor(Vehicle vehicle) {
-        for (Floor floor : floors) {
-            for (ParkingSpot spot : floor.getSpots()) {
-                if (spot.isAvailable() && vehicle.canParkIn(spot.getType())) {
-                    return spot;
-                }
+        // the plate's own booked bay first; bays held for other bookings are never offered
+        ParkingSpot booked = reservations.claimBooked(vehicle);
+        if (booked != null) return booked;
+        if (waitlist.isEmpty()) return freeSpots.claimFor(vehicle);
+
+        // vehicles are queued: they get first pick, this one takes what fits after them
+        List<Waitlist.Waiter> admitted;
+        ParkingSpot spot;
+        synchronized (waitlist) {
+            admitted = waitlist.admit();
+            spot = freeSpots.claimFor(vehicle);
+        }
+        finishAdmissions(admitted);
+        return spot;
+    }
+
+    // batch form: booked plates get their bays, everyone else is claimed under one lock acquisition
+    private ParkingSpot[] findAvailableSpotsFor(List<Vehicle> vehicles) {
+        ParkingSpot[] spots = new ParkingSpot[vehicles.size()];
+        List<Vehicle> walkIns = new ArrayList<>(vehicles.size());
+        List<Integer> walkInPositions = new ArrayList<>(vehicles.size());
+        for (int i = 0; i < spots.length; i++) {
+            Vehicle v = vehicles.get(i);
+            spots[i] = reservations.claimBooked(v);
+            if (spots[i] == null) {
+                walkIns.add(v);
+                walkInPositions.add(i);
             }
         }
-        return null;
+        ParkingSpot[] claimed;
+        if (waitlist.isEmpty()) {
+            claimed = freeSpots.claimAll(walkIns);
+        } else {
+            List<Waitlist.Waiter> admitted;
+            synchronized (waitlist) { // queued vehicles first, as in findAvailableSpotFor
+                admitted = waitlist.admit();
+                claimed = freeSpots.claimAll(walkIns);
+            }
+            finishAdmissions(admitted);
+        }
+        for (int j = 0; j < claimed.length; j++) spots[walkInPositions.get(j)] = claimed[j];
+        return spots;
+    }
+
+    /** How a single park or exit went. Only OK comes with a ticket or exit result. */
+    public enum Status {
+        OK, ALREADY_PARKED, LOT_FULL, NO_ACTIVE_TICKET;
+
+        // the wording the throwing API has always used
+        public String describe(String plateNumber) {
+            switch (this) {
+                case ALREADY_PARKED:   return "Vehicle already parked: " + plateNumber;
+                case LOT_FULL:         return "No available spot for this vehicle type.";
+                case NO_ACTIVE_TICKET: return "No active ticket for: " + plateNumber;
+                default:               return "OK";
+            }
+        }
+    }
+
+    public static class ParkAttempt {
+        // refusals say nothing about the vehicle, so one instance of each serves every call
+        static final ParkAttempt ALREADY_PARKED = new ParkAttempt(Status.ALREADY_PARKED, null);
+        static final ParkAttempt LOT_FULL = new ParkAttempt(Status.LOT_FULL, null);
+
+        public final Status status;
+        public final Ticket ticket; // null unless status is OK
+
+        ParkAttempt(Status status, Ticket ticket) {
+            this.status = status;
+            this.ticket = ticket;
+        }
+
+        public boolean isSuccess() {
+            return status == Status.OK;
+        }
+    }
+
+    public static class ExitAttempt {
+        static final ExitAttempt NO_ACTIVE_TICKET = new ExitAttempt(Status.NO_ACTIVE_TICKET, null);
+
+        public final Status status;
+        public final ExitResult result; // null unless status is OK
+
+        ExitAttempt(Status status, ExitResult result) {
+            this.status = status;
+            this.result = result;
+        }
+
+        public boolean isSuccess() {
+            return status == Status.OK;
+        }
+    }
+
+    public static class ParkOutcome {
+        public final Vehicle vehicle;
+        public final Ticket ticket; // null unless status is OK
+        public final Status status;
+
+        public ParkOutcome(Vehicle vehicle, Ticket ticket, Status status) {
+            this.vehicle = vehicle;
+            this.ticket = ticket;
+            this.status = status;
+        }
+
+        public boolean isSuccess() {
+            return status == Status.OK;
+        }
+    }
+
+    public static class ExitOutcome {
+        public final String plateNumber;
+        public final ExitResult result; // null unless status is OK
+        public final Status status;
+
+        public ExitOutcome(String plateNumber, ExitResult result, Status status) {
+            this.plateNumber = plateNumber;
+            this.result = result;
+            this.status = status;
+        }
+
+        public boolean isSuccess() {
+            return status == Status.OK;
+        }
     }
 
     public static class ExitResult {
@@ -124,4 +674,34 @@ public class ParkingService {
             return parkingFee + (fine == null ? 0 : fine.getAmount());
         }
     }
+
+    /** Same figures as ExitResult, for a ticket that is still open. Unchanged until validUntil. */
+    public static class ExitQuote {
+        public final Ticket ticket;
+        public final long hoursStayed;
+        public final double parkingFee;
+        public final double fineAmount;
+        public final LocalDateTime validFrom;
+        public final LocalDateTime validUntil;
+        final CompiledTariff tariff;
+
+        ExitQuote(Ticket ticket, long hoursStayed, double parkingFee, double fineAmount, CompiledTariff tariff,
+                  LocalDateTime validFrom, LocalDateTime validUntil) {
+            this.ticket = ticket;
+            this.hoursStayed = hoursStayed;
+            this.parkingFee = parkingFee;
+            this.fineAmount = fineAmount;
+            this.tariff = tariff;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+
+        boolean covers(LocalDateTime at) {
+            return !at.isBefore(validFrom) && at.isBefore(validUntil);
+        }
+
+        public double totalDue() {
+            return parkingFee + fineAmount;
+        }
+    }
 }
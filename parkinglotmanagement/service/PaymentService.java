@@ -1,44 +1,164 @@
 package service;
 
+import event.EventBus;
+import metrics.Metrics;
 import model.Fine;
 import model.Payment;
+import model.Vehicle;
+import strategy.IdStrategy;
+import strategy.SnowflakeIdStrategy;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 public class PaymentService {
 
     private final List<Payment> payments = new ArrayList<>();
+    private volatile StateJournal journal = StateJournal.NONE;
+    private volatile IdStrategy idStrategy = new SnowflakeIdStrategy(0);
+    private volatile FineLedger fineLedger; // optional; keeps its unpaid view in step with payments
+    private volatile Metrics metrics = new Metrics();
+    private volatile EventBus events = EventBus.NONE;
+
+    // Largest single amount accepted, so no payment can push a cents total past a long.
+    private static final double MAX_AMOUNT = 1e12;
+
+    // Running totals kept in cents, so years of payments add up exactly instead of drifting like doubles.
+    // Bucket arrays are {parkingFeeCents, finePaidCents}.
+    private long feeCents;
+    private long fineCents;
+    private final TreeMap<LocalDate, long[]> centsByDay = new TreeMap<>();
+    private final TreeMap<LocalDateTime, long[]> centsByHour = new TreeMap<>();
+
+    public void setIdStrategy(IdStrategy idStrategy) {
+        this.idStrategy = idStrategy;
+    }
+
+    public void setFineLedger(FineLedger fineLedger) {
+        this.fineLedger = fineLedger;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setEventBus(EventBus events) {
+        this.events = events == null ? EventBus.NONE : events;
+    }
+
+    public void setJournal(StateJournal journal) {
+        this.journal = journal == null ? StateJournal.NONE : journal;
+    }
 
     public Payment recordPayment(String plate, double parkingFee, Fine fineToPay) {
+        Vehicle.checkPlate(plate);
+        requireValidAmount(parkingFee);
+        if (fineToPay != null) requireValidAmount(fineToPay.getAmount());
+        // timed outside the lock, so pay stations queueing on it show up in the latency
+        long start = System.nanoTime();
+        try {
+            return recordPaymentLocked(plate, parkingFee, fineToPay);
+        } finally {
+            metrics.record(Metrics.Op.PAYMENT, start);
+        }
+    }
+
+    private synchronized Payment recordPaymentLocked(String plate, double parkingFee, Fine fineToPay) {
         double fineAmount = 0;
+        Fine paidFine = null;
 
         if (fineToPay != null && !fineToPay.isPaid()) {
             fineAmount = fineToPay.getAmount();
-            fineToPay.markPaid();
+            markPaid(fineToPay);
+            paidFine = fineToPay;
         }
 
-        String payId = "P-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String payId = idStrategy.nextId("P-");
         Payment payment = new Payment(payId, plate, parkingFee, fineAmount, LocalDateTime.now());
-        payments.add(payment);
+        add(payment);
+        journal.paymentRecorded(payment, paidFine);
+        events.paymentRecorded(payment, paidFine); // under the lock, so events come out in payment order
         return payment;
     }
 
-    public List<Payment> getPayments() {
-        return payments;
+    // journal replay
+    public synchronized void restorePayment(Payment payment, Fine paidFine) {
+        requireValidAmount(payment.getParkingFee());
+        requireValidAmount(payment.getFinePaid());
+        if (paidFine != null) markPaid(paidFine);
+        add(payment);
+    }
+
+    private void markPaid(Fine fine) {
+        FineLedger ledger = fineLedger;
+        if (ledger != null) ledger.markPaid(fine);
+        else fine.markPaid();
+    }
+
+    private void add(Payment payment) {
+        payments.add(payment);
+
+        long fee = toCents(payment.getParkingFee());
+        long fine = toCents(payment.getFinePaid());
+        feeCents += fee;
+        fineCents += fine;
+
+        LocalDateTime hour = payment.getPaidAt().truncatedTo(ChronoUnit.HOURS);
+        long[] day = centsByDay.computeIfAbsent(hour.toLocalDate(), d -> new long[2]);
+        day[0] += fee;
+        day[1] += fine;
+        long[] inHour = centsByHour.computeIfAbsent(hour, h -> new long[2]);
+        inHour[0] += fee;
+        inHour[1] += fine;
+    }
+
+    private static void requireValidAmount(double amount) {
+        if (!Double.isFinite(amount) || Math.abs(amount) > MAX_AMOUNT) {
+            throw new IllegalArgumentException("Invalid payment amount: " + amount);
+        }
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /** A copy of every payment, taken under the lock. O(payments): reports want the totals below instead. */
+    public synchronized List<Payment> getPayments() {
+        return List.copyOf(payments);
+    }
+
+    /** {parkingFeeCents, finePaidCents} for all time, read together so they always add up to one total. */
+    public synchronized long[] getRevenueCents() {
+        return new long[]{feeCents, fineCents};
+    }
+
+    public synchronized double getTotalRevenue() {
+        return (feeCents + fineCents) / 100.0;
+    }
+
+    public synchronized double getTotalParkingFees() {
+        return feeCents / 100.0;
+    }
+
+    public synchronized double getTotalFinesPaid() {
+        return fineCents / 100.0;
     }
 
-    public double getTotalRevenue() {
-        return payments.stream().mapToDouble(Payment::getTotalAmount).sum();
+    /** Per-day {parkingFeeCents, finePaidCents} for days in [from, to], oldest first. */
+    public synchronized SortedMap<LocalDate, long[]> getRevenueCentsByDay(LocalDate from, LocalDate to) {
+        return copyOf(centsByDay.subMap(from, true, to, true));
     }
 
-    public double getTotalParkingFees() {
-        return payments.stream().mapToDouble(Payment::getParkingFee).sum();
+    /** Per-hour {parkingFeeCents, finePaidCents} for hours starting in [from, to), oldest first. */
+    public synchronized SortedMap<LocalDateTime, long[]> getRevenueCentsByHour(LocalDateTime from, LocalDateTime to) {
+        return copyOf(centsByHour.subMap(from, true, to, false));
     }
 
-    public double getTotalFinesPaid() {
-        return payments.stream().mapToDouble(Payment::getFinePaid).sum();
+    private static <K> SortedMap<K, long[]> copyOf(SortedMap<K, long[]> buckets) {
+        SortedMap<K, long[]> copy = new TreeMap<>();
+        buckets.forEach((k, v) -> copy.put(k, v.clone()));
+        return copy;
     }
 }
\ No newline at end of file
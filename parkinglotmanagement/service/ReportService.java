@@ -1,74 +1,216 @@
 package service;
 
+import history.HistoryStore;
+import metrics.Metrics;
 import model.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ReportService {
 
     private final ParkingService parkingService;
     private final PaymentService paymentService;
+    private volatile HistoryStore history;
 
     public ReportService(ParkingService parkingService, PaymentService paymentService) {
         this.parkingService = parkingService;
         this.paymentService = paymentService;
     }
 
+    public void setHistory(HistoryStore history) {
+        this.history = history;
+    }
+
+    // shared with ParkingService, so one Metrics instance covers every service call
+    private Metrics metrics() {
+        return parkingService.getMetrics();
+    }
+
     public List<ParkingSpotRow> getAllSpots() {
-        List<ParkingSpotRow> rows = new ArrayList<>();
-        for (Floor floor : parkingService.getFloors()) {
-            for (ParkingSpot s : floor.getSpots()) {
-                String plate = getPlateForSpot(s.getSpotId());
-                rows.add(new ParkingSpotRow(floor.getFloorNumber(), s.getSpotId(), s.getType(), s.getStatus(), plate));
-            }
-        }
-        return rows;
+        return streamAllSpots().collect(Collectors.toList());
     }
 
-    private String getPlateForSpot(String spotId) {
-        for (Ticket t : parkingService.getActiveTickets()) {
-            if (t.isActive() && t.getSpot().getSpotId().equals(spotId)) {
-                return t.getVehicle().getPlateNumber();
-            }
+    // the spot knows its own occupant, so this stays a single pass over the lot
+    public Stream<ParkingSpotRow> streamAllSpots() {
+        return parkingService.getAllSpots().stream().map(ReportService::toRow);
+    }
+
+    /** Up to limit spots starting at position from (in floor order); nextKey is where the next page starts. */
+    public Page<ParkingSpotRow, Integer> getSpotsPage(int from, int limit) {
+        long start = System.nanoTime();
+        List<ParkingSpot> spots = parkingService.getAllSpots();
+        int end = Math.min(spots.size(), from + limit);
+        List<ParkingSpotRow> rows = new ArrayList<>(Math.max(0, end - from));
+        for (int i = from; i < end; i++) {
+            rows.add(toRow(spots.get(i)));
         }
-        return "";
+        metrics().record(Metrics.Op.SPOT_PAGE, start);
+        return new Page<>(rows, end < spots.size() ? end : null);
+    }
+
+    private static ParkingSpotRow toRow(ParkingSpot s) {
+        Vehicle v = s.getCurrentVehicle();
+        String plate = v == null ? "" : v.getPlateNumber();
+        return new ParkingSpotRow(s.getFloor().getFloorNumber(), s.getSpotId(), s.getType(), s.getStatus(), plate);
     }
 
     public List<Ticket> getCurrentlyParkedTickets() {
-        return parkingService.getActiveTickets().stream()
-                .filter(Ticket::isActive)
-                .sorted(Comparator.comparing(t -> t.getVehicle().getPlateNumber()))
-                .collect(Collectors.toList());
+        return streamParkedTickets().collect(Collectors.toList());
+    }
+
+    // plate order comes from ParkingService's sorted index, no per-call sort
+    public Stream<Ticket> streamParkedTickets() {
+        return parkingService.getActiveTicketsByPlate().values().stream().filter(Ticket::isActive);
+    }
+
+    /** Up to limit parked tickets with plates after afterPlate (null = from the start), in plate order. */
+    public Page<Ticket, String> getParkedTicketsPage(String afterPlate, int limit) {
+        long start = System.nanoTime();
+        Page<Ticket, String> page = parkedTicketsPage(afterPlate, limit);
+        metrics().record(Metrics.Op.TICKET_PAGE, start);
+        return page;
+    }
+
+    private Page<Ticket, String> parkedTicketsPage(String afterPlate, int limit) {
+        NavigableMap<String, Ticket> byPlate = parkingService.getActiveTicketsByPlate();
+        Map<String, Ticket> tail = afterPlate == null ? byPlate : byPlate.tailMap(afterPlate, false);
+        List<Ticket> items = new ArrayList<>(limit);
+        String last = null;
+        for (Ticket t : tail.values()) {
+            if (items.size() == limit) {
+                return new Page<>(items, last);
+            }
+            items.add(t);
+            last = t.getVehicle().getPlateNumber();
+        }
+        return new Page<>(items, null);
     }
 
     public OccupancySummary getOccupancySummary() {
+        long start = System.nanoTime();
         int total = 0, occupied = 0;
         Map<Integer, int[]> perFloor = new LinkedHashMap<>();
+        Map<SpotType, int[]> perType = new EnumMap<>(SpotType.class);
 
+        // counters live on each Floor, so this is O(floors) rather than O(spots)
         for (Floor f : parkingService.getFloors()) {
-            int fTotal = f.getSpots().size();
-            int fOcc = (int) f.getSpots().stream().filter(s -> s.getStatus() == SpotStatus.OCCUPIED).count();
+            int fTotal = f.getTotalCount();
+            int fOcc = f.getOccupiedCount();
 
             total += fTotal;
             occupied += fOcc;
             perFloor.put(f.getFloorNumber(), new int[]{fOcc, fTotal});
+
+            for (SpotType type : SpotType.values()) {
+                int[] t = perType.computeIfAbsent(type, k -> new int[2]);
+                t[0] += f.getOccupiedCount(type);
+                t[1] += f.getTotalCount(type);
+            }
         }
-        return new OccupancySummary(occupied, total, perFloor);
+        metrics().record(Metrics.Op.OCCUPANCY_REPORT, start);
+        return new OccupancySummary(occupied, total, perFloor, perType);
     }
 
     public RevenueSummary getRevenueSummary() {
-        return new RevenueSummary(
-                paymentService.getTotalParkingFees(),
-                paymentService.getTotalFinesPaid(),
-                paymentService.getTotalRevenue()
-        );
+        long start = System.nanoTime();
+        // one locked read, so a payment landing mid-report can't make fees + fines differ from the total
+        RevenueSummary summary = RevenueSummary.ofCents(paymentService.getRevenueCents());
+        metrics().record(Metrics.Op.REVENUE_REPORT, start);
+        return summary;
+    }
+
+    public Map<LocalDate, RevenueSummary> getDailyRevenue(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        Map<LocalDate, RevenueSummary> out = new LinkedHashMap<>();
+        paymentService.getRevenueCentsByDay(from, to).forEach((day, cents) -> out.put(day, RevenueSummary.ofCents(cents)));
+        metrics().record(Metrics.Op.REVENUE_REPORT, start);
+        return out;
+    }
+
+    public Map<LocalDateTime, RevenueSummary> getHourlyRevenue(LocalDate day) {
+        long start = System.nanoTime();
+        Map<LocalDateTime, RevenueSummary> out = new LinkedHashMap<>();
+        paymentService.getRevenueCentsByHour(day.atStartOfDay(), day.plusDays(1).atStartOfDay())
+                .forEach((hour, cents) -> out.put(hour, RevenueSummary.ofCents(cents)));
+        metrics().record(Metrics.Op.REVENUE_REPORT, start);
+        return out;
+    }
+
+    /**
+     * Occupancy and revenue per bucket from the history store, e.g. the last 24 hours by HOUR.
+     * floorNumber / type null means all floors / all types.
+     */
+    public HistoryStore.Series getTrend(HistoryStore.Resolution resolution, LocalDateTime from, LocalDateTime to,
+                                        Integer floorNumber, SpotType type) {
+        long start = System.nanoTime();
+        HistoryStore.Series series = history().query(resolution, from, to, floorNumber, type);
+        metrics().record(Metrics.Op.TREND_REPORT, start);
+        return series;
+    }
+
+    public int getPeakOccupancy(LocalDateTime from, LocalDateTime to) {
+        long start = System.nanoTime();
+        int peak = history().peakOccupancy(from, to);
+        metrics().record(Metrics.Op.TREND_REPORT, start);
+        return peak;
+    }
+
+    private HistoryStore history() {
+        HistoryStore h = history;
+        if (h == null) throw new IllegalStateException("No history store configured");
+        return h;
     }
 
     public List<Fine> getOutstandingFines() {
-        return parkingService.getFines().stream()
-                .filter(f -> !f.isPaid())
-                .collect(Collectors.toList());
+        return streamOutstandingFines().collect(Collectors.toList());
+    }
+
+    public Stream<Fine> streamOutstandingFines() {
+        // the ledger keeps unpaid fines apart, so paid history is never scanned
+        return parkingService.getFineLedger().getUnpaid().stream().filter(f -> !f.isPaid());
+    }
+
+    public long countOutstandingFines() {
+        return parkingService.getFineLedger().getUnpaidCount();
+    }
+
+    /** Up to limit unpaid fines from fine sequence number from onwards; nextKey is where the next page starts. */
+    public Page<Fine, Long> getOutstandingFinesPage(long from, int limit) {
+        long start = System.nanoTime();
+        Page<Fine, Long> page = outstandingFinesPage(from, limit);
+        metrics().record(Metrics.Op.FINE_PAGE, start);
+        return page;
+    }
+
+    private Page<Fine, Long> outstandingFinesPage(long from, int limit) {
+        List<Fine> items = new ArrayList<>(limit);
+        for (Map.Entry<Long, Fine> e : parkingService.getFineLedger().getUnpaidFrom(from).entrySet()) {
+            if (items.size() == limit) {
+                return new Page<>(items, e.getKey());
+            }
+            if (!e.getValue().isPaid()) items.add(e.getValue());
+        }
+        return new Page<>(items, null);
+    }
+
+    /** Unpaid fines of one plate, e.g. to settle them at the exit gate. */
+    public List<Fine> getOutstandingFines(String plateNumber) {
+        return parkingService.getFineLedger().getUnpaidFines(plateNumber);
+    }
+
+    /** One page of a report plus the key to ask for the next one (null on the last page). */
+    public static class Page<T, K> {
+        public final List<T> items;
+        public final K nextKey;
+
+        public Page(List<T> items, K nextKey) {
+            this.items = items;
+            this.nextKey = nextKey;
+        }
     }
 
     public static class ParkingSpotRow {
@@ -91,11 +233,13 @@ public class ReportService {
         public final int occupied;
         public final int total;
         public final Map<Integer, int[]> perFloor;
+        public final Map<SpotType, int[]> perType;
 
-        public OccupancySummary(int occupied, int total, Map<Integer, int[]> perFloor) {
+        public OccupancySummary(int occupied, int total, Map<Integer, int[]> perFloor, Map<SpotType, int[]> perType) {
             this.occupied = occupied;
             this.total = total;
             this.perFloor = perFloor;
+            this.perType = perType;
         }
 
         public double occupancyRate() {
@@ -113,5 +257,9 @@ public class ReportService {
             this.totalFines = totalFines;
             this.totalRevenue = totalRevenue;
         }
+
+        static RevenueSummary ofCents(long[] cents) {
+            return new RevenueSummary(cents[0] / 100.0, cents[1] / 100.0, (cents[0] + cents[1]) / 100.0);
+        }
     }
 }
@@ -0,0 +1,283 @@
+package service;
+
+import model.ParkingSpot;
+import model.Reservation;
+import model.SpotType;
+import model.Vehicle;
+import strategy.IdStrategy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bookings of RESERVED bays for time windows.
+ *
+ * Each bay keeps its bookings in a TreeMap by start time. Bookings on one bay never overlap,
+ * so "is this bay free over [from, to)" is a single lowerEntry lookup, O(log n) however many
+ * bookings the bay has.
+ *
+ * From holdAhead before a booking starts until it ends, its bay is held: the free-spot index
+ * stops offering it to walk-ins, so allocation skips it without looking at any booking. Holds
+ * start and end lazily, from a queue ordered by time, as parks come in; the time is the book's
+ * own wall clock, never a vehicle's timestamp. The booked plate can take its bay any time
+ * during the hold.
+ *
+ * Bookings live in memory only; they are not journaled.
+ */
+public class ReservationBook {
+
+    private final FreeSpotIndex index;
+    private final int[] reservedBays; // ordinals of every RESERVED bay, floor order
+    private final Map<String, Integer> bayBySpotId = new HashMap<>();
+    private int cursor;               // where the next "any bay" search starts, so bookings spread out
+
+    private final Map<Integer, TreeMap<LocalDateTime, Booking>> byBay = new HashMap<>();
+    private final Map<String, Booking> byId = new HashMap<>();
+    private final Map<String, List<Booking>> byPlate = new HashMap<>();
+    // plates with at least one booking, readable without the lock so walk-ins skip it
+    private final Map<String, Boolean> bookedPlates = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> holdCount = new HashMap<>();
+    // TreeSet rather than a heap so a cancelled booking's transitions come out in O(log n)
+    private final TreeSet<Transition> transitions = new TreeSet<>();
+    private long nextSeq;
+    private volatile LocalDateTime nextTransition = LocalDateTime.MAX;
+
+    private volatile Duration holdAhead = Duration.ofHours(1);
+    private volatile IdStrategy ids;
+    private volatile Clock clock = Clock.systemDefaultZone();
+
+    ReservationBook(FreeSpotIndex index, IdStrategy ids) {
+        this.index = index;
+        this.reservedBays = index.ordinalsOf(SpotType.RESERVED);
+        for (int bay : reservedBays) bayBySpotId.put(index.spotAt(bay).getSpotId(), bay);
+        this.ids = ids;
+    }
+
+    void setIdStrategy(IdStrategy ids) {
+        this.ids = ids;
+    }
+
+    /** The clock holds start and end by. Defaults to the system clock. */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** How long before a booking starts its bay is kept back from walk-ins. Applies to new bookings. */
+    public void setHoldAhead(Duration holdAhead) {
+        this.holdAhead = holdAhead;
+    }
+
+    /** Books the first RESERVED bay that is free for the whole window. */
+    public synchronized Reservation book(String plateNumber, LocalDateTime from, LocalDateTime to) {
+        checkWindow(plateNumber, from, to);
+        for (int i = 0; i < reservedBays.length; i++) {
+            int bay = reservedBays[(cursor + i) % reservedBays.length];
+            if (isFree(bay, from, to)) {
+                cursor = (cursor + i + 1) % reservedBays.length;
+                return add(bay, plateNumber, from, to);
+            }
+        }
+        throw new IllegalStateException("No reserved bay free from " + from + " to " + to);
+    }
+
+    /** Books one particular bay. */
+    public synchronized Reservation book(String spotId, String plateNumber, LocalDateTime from, LocalDateTime to) {
+        checkWindow(plateNumber, from, to);
+        int bay = bayOf(spotId);
+        if (!isFree(bay, from, to)) throw new IllegalStateException("Bay " + spotId + " is already booked in that window");
+        return add(bay, plateNumber, from, to);
+    }
+
+    public synchronized void cancel(String reservationId) {
+        Booking b = byId.get(reservationId);
+        if (b == null) throw new IllegalStateException("No reservation: " + reservationId);
+        remove(b);
+    }
+
+    public synchronized boolean isFree(String spotId, LocalDateTime from, LocalDateTime to) {
+        return isFree(bayOf(spotId), from, to);
+    }
+
+    public synchronized List<Reservation> getReservations(String plateNumber) {
+        List<Reservation> out = new ArrayList<>();
+        for (Booking b : byPlate.getOrDefault(plateNumber, List.of())) out.add(b.reservation);
+        return out;
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    // --- allocation hooks, called by ParkingService on every park and by Waitlist on admission ---
+
+    /**
+     * Brings holds up to date for the current time, then, if the vehicle's plate has a booking
+     * whose hold covers it, assigns it that bay. Null means: allocate as a walk-in.
+     */
+    ParkingSpot claimBooked(Vehicle vehicle) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        advance(now);
+        if (!bookedPlates.containsKey(vehicle.getPlateNumber())) return null;
+        ParkingSpot bay;
+        synchronized (this) {
+            Booking b = bookingAt(vehicle.getPlateNumber(), now);
+            if (b == null) return null;
+            bay = b.reservation.getSpot();
+        }
+        // the bay can still be taken by someone overstaying; then the holder parks like anyone else
+        return index.claim(bay, vehicle) ? bay : null;
+    }
+
+    /** True if the plate has any booking, held or not. Takes no lock. */
+    boolean hasBooking(String plateNumber) {
+        return bookedPlates.containsKey(plateNumber);
+    }
+
+    /** advance(now) by the book's own clock. */
+    void advance() {
+        advance(LocalDateTime.now(clock));
+    }
+
+    /** Starts and ends the holds due by now. Cheap when nothing is due: one volatile read. */
+    void advance(LocalDateTime now) {
+        if (now.isBefore(nextTransition)) return;
+        synchronized (this) {
+            Transition t;
+            while ((t = first()) != null && !now.isBefore(t.at)) {
+                transitions.pollFirst();
+                Booking b = t.booking;
+                if (t.start) {
+                    hold(b);
+                } else {
+                    remove(b); // ended
+                }
+            }
+            nextTransition = t == null ? LocalDateTime.MAX : t.at;
+        }
+    }
+
+    // --- internals, all under the lock ---
+
+    private void checkWindow(String plateNumber, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) throw new IllegalArgumentException("Reservation must end after it starts");
+        if (!to.isAfter(LocalDateTime.now(clock))) throw new IllegalArgumentException("Reservation window has already ended");
+        for (Booking b : byPlate.getOrDefault(plateNumber, List.of())) {
+            if (b.reservation.overlaps(from, to)) {
+                throw new IllegalStateException(plateNumber + " already has a reservation in that window");
+            }
+        }
+    }
+
+    private int bayOf(String spotId) {
+        Integer bay = bayBySpotId.get(spotId);
+        if (bay == null) throw new IllegalStateException("Not a reserved bay: " + spotId);
+        return bay;
+    }
+
+    // the booking with the latest start before to is the only one that can reach past from
+    private boolean isFree(int bay, LocalDateTime from, LocalDateTime to) {
+        TreeMap<LocalDateTime, Booking> bookings = byBay.get(bay);
+        if (bookings == null) return true;
+        Map.Entry<LocalDateTime, Booking> e = bookings.lowerEntry(to);
+        return e == null || !e.getValue().reservation.getTo().isAfter(from);
+    }
+
+    private Booking bookingAt(String plateNumber, LocalDateTime now) {
+        for (Booking b : byPlate.getOrDefault(plateNumber, List.of())) {
+            if (b.holding && now.isBefore(b.reservation.getTo())) return b;
+        }
+        return null;
+    }
+
+    private Reservation add(int bay, String plateNumber, LocalDateTime from, LocalDateTime to) {
+        Reservation r = new Reservation(ids.nextId("R-"), plateNumber, index.spotAt(bay), from, to);
+        Booking b = new Booking(r, bay, nextSeq++);
+        byBay.computeIfAbsent(bay, k -> new TreeMap<>()).put(from, b);
+        byId.put(r.getReservationId(), b);
+        byPlate.computeIfAbsent(plateNumber, k -> new ArrayList<>()).add(b);
+        bookedPlates.put(plateNumber, Boolean.TRUE);
+        b.start = new Transition(from.minus(holdAhead), b, true);
+        b.end = new Transition(to, b, false);
+        schedule(b.start);
+        schedule(b.end);
+        return r;
+    }
+
+    private Transition first() {
+        return transitions.isEmpty() ? null : transitions.first();
+    }
+
+    private void schedule(Transition t) {
+        transitions.add(t);
+        if (t.at.isBefore(nextTransition)) nextTransition = t.at;
+    }
+
+    private void hold(Booking b) {
+        b.holding = true;
+        if (holdCount.merge(b.bay, 1, Integer::sum) == 1) index.hold(b.bay);
+    }
+
+    private void remove(Booking b) {
+        // no-ops for transitions already taken off the queue
+        transitions.remove(b.start);
+        transitions.remove(b.end);
+        Transition next = first();
+        nextTransition = next == null ? LocalDateTime.MAX : next.at;
+        if (b.holding) {
+            b.holding = false;
+            if (holdCount.merge(b.bay, -1, Integer::sum) == 0) {
+                holdCount.remove(b.bay);
+                index.unhold(b.bay);
+            }
+        }
+        String plate = b.reservation.getPlateNumber();
+        TreeMap<LocalDateTime, Booking> bookings = byBay.get(b.bay);
+        bookings.remove(b.reservation.getFrom());
+        if (bookings.isEmpty()) byBay.remove(b.bay);
+        byId.remove(b.reservation.getReservationId());
+        List<Booking> mine = byPlate.get(plate);
+        mine.remove(b);
+        if (mine.isEmpty()) {
+            byPlate.remove(plate);
+            bookedPlates.remove(plate);
+        }
+    }
+
+    private static final class Booking {
+        final Reservation reservation;
+        final int bay;
+        final long seq; // breaks ties between transitions at the same instant
+        Transition start;
+        Transition end;
+        boolean holding;
+
+        Booking(Reservation reservation, int bay, long seq) {
+            this.reservation = reservation;
+            this.bay = bay;
+            this.seq = seq;
+        }
+    }
+
+    private static final class Transition implements Comparable<Transition> {
+        final LocalDateTime at;
+        final Booking booking;
+        final boolean start;
+
+        Transition(LocalDateTime at, Booking booking, boolean start) {
+            this.at = at;
+            this.booking = booking;
+            this.start = start;
+        }
+
+        @Override
+        public int compareTo(Transition o) {
+            int c = at.compareTo(o.at);
+            // at the same instant, start the next hold before ending the old one, so the bay never looks free in between
+            if (c == 0) c = Boolean.compare(o.start, start);
+            return c != 0 ? c : Long.compare(booking.seq, o.booking.seq);
+        }
+    }
+}
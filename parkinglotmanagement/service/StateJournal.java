@@ -0,0 +1,40 @@
+package service;
+
+import model.Fine;
+import model.Payment;
+import model.Ticket;
+
+import java.util.List;
+
+/**
+ * Receives every state change of ParkingService and PaymentService, in order,
+ * so it can be written somewhere that survives a restart.
+ */
+public interface StateJournal {
+
+    StateJournal NONE = new StateJournal() {
+        public void vehicleParked(Ticket ticket) { }
+        public void vehicleExited(Ticket ticket) { }
+        public void fineIssued(Fine fine) { }
+        public void paymentRecorded(Payment payment, Fine paidFine) { }
+    };
+
+    void vehicleParked(Ticket ticket);
+
+    void vehicleExited(Ticket ticket);
+
+    void fineIssued(Fine fine);
+
+    void paymentRecorded(Payment payment, Fine paidFine); // paidFine is nullable
+
+    // Batch forms for ANPR bursts; journals that can write a group in one go override these.
+
+    default void vehiclesParked(List<Ticket> tickets) {
+        for (Ticket t : tickets) vehicleParked(t);
+    }
+
+    default void vehiclesExited(List<Ticket> tickets, List<Fine> issuedFines) {
+        for (Ticket t : tickets) vehicleExited(t);
+        for (Fine f : issuedFines) fineIssued(f);
+    }
+}
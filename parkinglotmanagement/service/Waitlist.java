@@ -0,0 +1,165 @@
+package service;
+
+import model.ParkingSpot;
+import model.SpotType;
+import model.Ticket;
+import model.Vehicle;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Entry queue for a full lot. Vehicles that found no spot wait here in one FIFO queue per
+ * set of compatible SpotTypes (one per vehicle class in practice), and are admitted as
+ * exits free spots; nothing polls.
+ *
+ * Admission is oldest-first across queues: the longest-waiting vehicle that a free spot
+ * fits gets it. A queue whose head cannot be placed has no free spot of any of its types,
+ * so a later vehicle from another queue only ever takes a spot the earlier one could not
+ * use, and no class can starve another.
+ *
+ * Walk-ins go through admit() first while anyone is waiting, so they never jump the queue.
+ *
+ * A waiter whose plate was booked when it queued takes its bay as soon as the booking holds
+ * it, wherever it is in the queue: nobody else may have that bay anyway.
+ */
+public class Waitlist {
+
+    private static final SpotType[] TYPES = SpotType.values();
+
+    private final FreeSpotIndex index;
+    private final ReservationBook reservations;
+    // keyed by a bitmask of the compatible types; LinkedHashMap so the admission scan is repeatable
+    private final Map<Integer, ArrayDeque<Waiter>> queues = new LinkedHashMap<>();
+    private final Map<String, Waiter> byPlate = new HashMap<>();
+    private final Set<Waiter> booked = new LinkedHashSet<>(); // waiters with a booking, few at any time
+    private long nextSeq;
+    private volatile int depth;
+
+    Waitlist(FreeSpotIndex index, ReservationBook reservations) {
+        this.index = index;
+        this.reservations = reservations;
+    }
+
+    /** Vehicles waiting, all queues together. */
+    public int getDepth() {
+        return depth;
+    }
+
+    /** Vehicles waiting per queue, keyed by the queue's spot types, e.g. "COMPACT+REGULAR". */
+    public synchronized Map<String, Integer> getDepths() {
+        Map<String, Integer> out = new LinkedHashMap<>();
+        queues.forEach((key, q) -> out.put(label(key), q.size()));
+        return out;
+    }
+
+    public synchronized boolean isWaiting(String plateNumber) {
+        return byPlate.containsKey(plateNumber);
+    }
+
+    boolean isEmpty() {
+        return depth == 0;
+    }
+
+    // --- called by ParkingService ---
+
+    synchronized Waiter enqueue(Vehicle vehicle) {
+        SpotType[] types = index.compatibleTypesOf(vehicle);
+        Waiter w = new Waiter(vehicle, types, nextSeq++);
+        queues.computeIfAbsent(mask(types), k -> new ArrayDeque<>()).addLast(w);
+        byPlate.put(vehicle.getPlateNumber(), w);
+        if (reservations.hasBooking(vehicle.getPlateNumber())) booked.add(w);
+        depth++; // written before the caller's admit() looks for spots, so a concurrent exit can't be missed
+        return w;
+    }
+
+    /** Takes the vehicle out of its queue; false if it was already admitted or gone. */
+    synchronized boolean remove(Waiter w) {
+        if (byPlate.get(w.vehicle.getPlateNumber()) != w) return false;
+        byPlate.remove(w.vehicle.getPlateNumber());
+        queues.get(mask(w.types)).remove(w);
+        booked.remove(w);
+        depth--;
+        return true;
+    }
+
+    synchronized Waiter get(String plateNumber) {
+        return byPlate.get(plateNumber);
+    }
+
+    /**
+     * Hands free spots to waiting vehicles, oldest first, until no waiting vehicle fits any
+     * free spot, after booked waiters have taken their held bays. Each admitted waiter comes
+     * back with its spot set. Caller holds the monitor if it wants to claim for a walk-in
+     * straight after.
+     */
+    synchronized List<Waiter> admit() {
+        if (depth == 0) return List.of();
+        // holds due by now start first, so no one is admitted into a bay that should be held
+        reservations.advance();
+        List<Waiter> admitted = new ArrayList<>();
+        for (Iterator<Waiter> it = booked.iterator(); it.hasNext(); ) {
+            Waiter w = it.next();
+            ParkingSpot bay = reservations.claimBooked(w.vehicle);
+            if (bay == null) continue;
+            it.remove();
+            queues.get(mask(w.types)).remove(w);
+            admit(w, bay, admitted);
+        }
+
+        Set<Integer> full = new HashSet<>();
+        while (true) {
+            // oldest head among queues that may still have room
+            Waiter oldest = null;
+            for (Map.Entry<Integer, ArrayDeque<Waiter>> e : queues.entrySet()) {
+                Waiter head = e.getValue().peekFirst();
+                if (head != null && !full.contains(e.getKey()) && (oldest == null || head.seq < oldest.seq)) oldest = head;
+            }
+            if (oldest == null) return admitted;
+
+            ParkingSpot spot = index.claimFor(oldest.vehicle);
+            if (spot == null) {
+                full.add(mask(oldest.types));
+                continue;
+            }
+            queues.get(mask(oldest.types)).pollFirst();
+            booked.remove(oldest);
+            admit(oldest, spot, admitted);
+        }
+    }
+
+    // caller has taken w off its queue
+    private void admit(Waiter w, ParkingSpot spot, List<Waiter> admitted) {
+        byPlate.remove(w.vehicle.getPlateNumber());
+        depth--;
+        w.spot = spot;
+        admitted.add(w);
+    }
+
+    private static int mask(SpotType[] types) {
+        int m = 0;
+        for (SpotType t : types) m |= 1 << t.ordinal();
+        return m;
+    }
+
+    private static String label(int mask) {
+        StringJoiner sj = new StringJoiner("+");
+        for (SpotType t : TYPES) if ((mask & (1 << t.ordinal())) != 0) sj.add(t.name());
+        return sj.toString();
+    }
+
+    static final class Waiter {
+        final Vehicle vehicle;
+        final SpotType[] types;
+        final long seq;
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<Ticket> future = new CompletableFuture<>();
+        ParkingSpot spot; // set on admission
+
+        Waiter(Vehicle vehicle, SpotType[] types, long seq) {
+            this.vehicle = vehicle;
+            this.types = types;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package site;
+
+import event.EventBus;
+import metrics.Metrics;
+import model.Floor;
+import persistence.ParkingJournal;
+import service.ParkingService;
+import service.PaymentService;
+import service.ReportService;
+import strategy.SnowflakeIdStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * One car park: its own ParkingService, PaymentService and ReportService, and its own
+ * gate thread. Writes for the site are queued on that thread, so sites never contend
+ * with each other and one site's gates never contend among themselves.
+ *
+ * Each site also has its own EventBus, and, when the router was given a data directory,
+ * its own ParkingJournal in a subdirectory named after the site, replayed when the site is added.
+ */
+public class Site {
+
+    private final String id;
+    private final double x, y; // location, in km on whatever grid the operator uses
+    final ParkingService parkingService;
+    final PaymentService paymentService = new PaymentService();
+    final ReportService reportService;
+    final EventBus events = new EventBus(1024);
+    final ParkingJournal journal; // null when the router keeps everything in memory
+    final ExecutorService gate;
+
+    // journalDir == null keeps the site in memory only
+    Site(String id, double x, double y, List<Floor> floors, int nodeId, Metrics metrics, Path journalDir) {
+        this.id = id;
+        this.x = x;
+        this.y = y;
+        parkingService = new ParkingService(floors);
+        reportService = new ReportService(parkingService, paymentService);
+
+        // one Snowflake node per site, so ticket and payment IDs stay unique across the whole estate
+        SnowflakeIdStrategy ids = new SnowflakeIdStrategy(nodeId);
+        parkingService.setIdStrategy(ids);
+        paymentService.setIdStrategy(ids);
+        paymentService.setFineLedger(parkingService.getFineLedger());
+        parkingService.setMetrics(metrics);
+        paymentService.setMetrics(metrics);
+        parkingService.setEventBus(events);
+        paymentService.setEventBus(events);
+
+        try {
+            journal = journalDir == null ? null : ParkingJournal.open(journalDir, parkingService, paymentService, 5);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover site " + id + " from " + journalDir, e);
+        }
+
+        gate = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "site-" + id);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public double distanceTo(double x, double y) {
+        return Math.hypot(this.x - x, this.y - y);
+    }
+
+    // reads are safe from any thread; writes should go through the router so they run on the gate thread
+    public ParkingService getParkingService() {
+        return parkingService;
+    }
+
+    public PaymentService getPaymentService() {
+        return paymentService;
+    }
+
+    public ReportService getReportService() {
+        return reportService;
+    }
+
+    /** This site's events only; subscribe here to follow one car park. */
+    public EventBus getEvents() {
+        return events;
+    }
+
+    public ParkingJournal getJournal() {
+        return journal;
+    }
+}
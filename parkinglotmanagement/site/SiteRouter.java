@@ -0,0 +1,304 @@
+package site;
+
+import metrics.Metrics;
+import model.Fine;
+import model.Floor;
+import model.Payment;
+import model.SpotType;
+import model.Ticket;
+import model.Vehicle;
+import service.ParkingService;
+import service.ReportService;
+import strategy.SnowflakeIdStrategy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Many car parks in one process. Each Site is an independent shard with its own services
+ * and gate thread; the router only maps a site ID to its shard, so entries and exits at
+ * different sites run in parallel and throughput grows with the number of cores.
+ *
+ * Estate-wide questions (nearest site with room, totals across all sites) fan out over the
+ * shards with fork-join and merge the answers.
+ *
+ * Several processes can split an estate between them: give each one its own firstNodeId
+ * range so ticket and payment IDs never clash.
+ *
+ * Given a data directory, every site journals to dataDir/&lt;site ID&gt; and is checkpointed and
+ * has its paid fines archived on the same schedule as AppContext's lot; without one the
+ * estate lives in memory only. Events are per site (Site.getEvents()).
+ */
+public class SiteRouter implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(SiteRouter.class.getName());
+
+    // below this many sites a fork-join task just does the work itself
+    private static final int SEQUENTIAL_SITES = 4;
+
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private volatile Site[] siteArray = new Site[0]; // snapshot for the fork-join tasks
+    private final Metrics metrics = new Metrics();
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private final Path dataDir; // null = in memory only
+    private final ScheduledExecutorService maintenance; // null without a dataDir
+    private int nextNodeId;
+
+    public SiteRouter() {
+        this(Integer.getInteger("parking.nodeId", 0));
+    }
+
+    public SiteRouter(int firstNodeId) {
+        this(firstNodeId, null);
+    }
+
+    // dataDir == null keeps every site in memory only
+    public SiteRouter(int firstNodeId, Path dataDir) {
+        this.nextNodeId = firstNodeId;
+        this.dataDir = dataDir;
+        this.maintenance = dataDir == null ? null : scheduleMaintenance(
+                Long.getLong("parking.journalCheckpointBytes", 64L << 20),
+                Integer.getInteger("parking.fineRetentionDays", 90));
+    }
+
+    public synchronized Site addSite(String id, double x, double y, List<Floor> floors) {
+        if (sites.containsKey(id)) throw new IllegalStateException("Site already exists: " + id);
+        if (nextNodeId > SnowflakeIdStrategy.MAX_NODE_ID) throw new IllegalStateException("Out of node IDs for site " + id);
+        Site site = new Site(id, x, y, floors, nextNodeId++, metrics, journalDir(id));
+        sites.put(id, site);
+        List<Site> all = new ArrayList<>(List.of(siteArray));
+        all.add(site);
+        siteArray = all.toArray(new Site[0]);
+        return site;
+    }
+
+    public Site getSite(String id) {
+        Site site = sites.get(id);
+        if (site == null) throw new IllegalStateException("Unknown site: " + id);
+        return site;
+    }
+
+    private Path journalDir(String id) {
+        if (dataDir == null) return null;
+        Path dir = dataDir.resolve(id).normalize();
+        if (!dataDir.normalize().equals(dir.getParent())) throw new IllegalStateException("Site ID is not a directory name: " + id);
+        return dir;
+    }
+
+    public Collection<Site> getSites() {
+        return List.of(siteArray);
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    // --- routed calls: run on the site's gate thread ---
+
+    public CompletableFuture<Ticket> parkVehicle(String siteId, Vehicle vehicle) {
+        return submit(siteId, s -> s.parkingService.parkVehicle(vehicle));
+    }
+
+    public CompletableFuture<ParkingService.ExitResult> exitVehicle(String siteId, String plateNumber) {
+        return submit(siteId, s -> s.parkingService.exitVehicle(plateNumber));
+    }
+
+    public CompletableFuture<Payment> recordPayment(String siteId, String plateNumber, double parkingFee, Fine fine) {
+        return submit(siteId, s -> s.paymentService.recordPayment(plateNumber, parkingFee, fine));
+    }
+
+    /** Any other call, in order with the site's entries and exits. */
+    public <T> CompletableFuture<T> submit(String siteId, Function<Site, T> call) {
+        Site site = getSite(siteId);
+        return CompletableFuture.supplyAsync(() -> call.apply(site), site.gate);
+    }
+
+    // --- estate-wide queries, fork-join over the shards ---
+
+    /** Closest site with a free spot this vehicle can take, or null if every site is full for it. */
+    public FreeSite findNearestFreeSite(double x, double y, Vehicle vehicle) {
+        Site[] all = siteArray;
+        return pool.invoke(new Fold<>(all, 0, all.length, () -> null,
+                site -> {
+                    int free = site.parkingService.getFreeCount(vehicle);
+                    return free == 0 ? null : new FreeSite(site, site.distanceTo(x, y), free);
+                },
+                (a, b) -> a == null ? b : b == null ? a : b.distance < a.distance ? b : a));
+    }
+
+    /** Occupancy of every site and the estate totals, each site summarised in parallel. */
+    public EstateSummary getEstateSummary() {
+        Site[] all = siteArray;
+        return pool.invoke(new Fold<>(all, 0, all.length, EstateSummary::empty, EstateSummary::of, EstateSummary::merge));
+    }
+
+    /** Revenue across every site. */
+    public ReportService.RevenueSummary getRevenueSummary() {
+        Site[] all = siteArray;
+        return pool.invoke(new Fold<>(all, 0, all.length, () -> new ReportService.RevenueSummary(0, 0, 0),
+                site -> site.reportService.getRevenueSummary(),
+                (a, b) -> new ReportService.RevenueSummary(a.totalFees + b.totalFees,
+                        a.totalFines + b.totalFines, a.totalRevenue + b.totalRevenue)));
+    }
+
+    /** Lets each site's gate finish its queued calls, then closes the journals and event buses. */
+    @Override
+    public void close() {
+        if (maintenance != null) maintenance.shutdown();
+        Site[] all = siteArray;
+        for (Site site : all) site.gate.shutdown();
+        IOException failure = null;
+        for (Site site : all) {
+            try {
+                site.gate.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            site.events.close();
+            if (site.journal == null) continue;
+            try {
+                site.journal.close();
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) throw new UncheckedIOException("Could not close every site journal", failure);
+    }
+
+    // checkpoints each site's journal once it passes maxBytes, and archives old paid fines daily, like AppContext
+    private ScheduledExecutorService scheduleMaintenance(long maxBytes, int retentionDays) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "site-journals");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            for (Site site : siteArray) {
+                try {
+                    site.journal.checkpointIfLarger(maxBytes);
+                } catch (IOException | RuntimeException e) {
+                    // the journals stay on disk and the next run folds them all
+                    LOG.log(Level.WARNING, "Journal checkpoint failed for site " + site.getId(), e);
+                }
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+        executor.scheduleAtFixedRate(() -> {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            for (Site site : siteArray) {
+                try {
+                    site.journal.archivePaidFines(cutoff);
+                } catch (RuntimeException e) {
+                    LOG.log(Level.WARNING, "Fine archiving failed for site " + site.getId(), e);
+                }
+            }
+        }, 0, 1, TimeUnit.DAYS);
+        return executor;
+    }
+
+    // map each site in [from, to), combine pairwise starting from identity; halves run as separate fork-join tasks
+    private static final class Fold<T> extends RecursiveTask<T> {
+        private final Site[] sites;
+        private final int from, to;
+        private final Supplier<T> identity; // called once per leaf, so combine may reuse its left argument
+        private final Function<Site, T> map;
+        private final BinaryOperator<T> combine;
+
+        Fold(Site[] sites, int from, int to, Supplier<T> identity, Function<Site, T> map, BinaryOperator<T> combine) {
+            this.sites = sites;
+            this.from = from;
+            this.to = to;
+            this.identity = identity;
+            this.map = map;
+            this.combine = combine;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= SEQUENTIAL_SITES) {
+                T acc = identity.get();
+                for (int i = from; i < to; i++) acc = combine.apply(acc, map.apply(sites[i]));
+                return acc;
+            }
+            int mid = (from + to) >>> 1;
+            Fold<T> left = new Fold<>(sites, from, mid, identity, map, combine);
+            left.fork();
+            T right = new Fold<>(sites, mid, to, identity, map, combine).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+
+    public static class FreeSite {
+        public final Site site;
+        public final double distance;
+        public final int freeSpots;
+
+        public FreeSite(Site site, double distance, int freeSpots) {
+            this.site = site;
+            this.distance = distance;
+            this.freeSpots = freeSpots;
+        }
+    }
+
+    public static class EstateSummary {
+        public final int occupied;
+        public final int total;
+        public final Map<String, ReportService.OccupancySummary> perSite;
+        public final Map<SpotType, int[]> perType; // {occupied, total}
+
+        public EstateSummary(int occupied, int total, Map<String, ReportService.OccupancySummary> perSite, Map<SpotType, int[]> perType) {
+            this.occupied = occupied;
+            this.total = total;
+            this.perSite = perSite;
+            this.perType = perType;
+        }
+
+        // no sites: nothing occupied out of nothing, every type present at {0, 0}
+        static EstateSummary empty() {
+            Map<SpotType, int[]> perType = new EnumMap<>(SpotType.class);
+            for (SpotType type : SpotType.values()) perType.put(type, new int[2]);
+            return new EstateSummary(0, 0, new LinkedHashMap<>(), perType);
+        }
+
+        static EstateSummary of(Site site) {
+            ReportService.OccupancySummary occ = site.reportService.getOccupancySummary();
+            Map<String, ReportService.OccupancySummary> perSite = new LinkedHashMap<>();
+            perSite.put(site.getId(), occ);
+            Map<SpotType, int[]> perType = new EnumMap<>(SpotType.class);
+            occ.perType.forEach((type, arr) -> perType.put(type, arr.clone()));
+            return new EstateSummary(occ.occupied, occ.total, perSite, perType);
+        }
+
+        // left and right are fresh per task, so merging into left is safe
+        static EstateSummary merge(EstateSummary left, EstateSummary right) {
+            left.perSite.putAll(right.perSite);
+            right.perType.forEach((type, arr) -> left.perType.merge(type, arr, (a, b) -> new int[]{a[0] + b[0], a[1] + b[1]}));
+            return new EstateSummary(left.occupied + right.occupied, left.total + right.total, left.perSite, left.perType);
+        }
+
+        public double occupancyRate() {
+            return total == 0 ? 0 : (occupied * 100.0 / total);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package strategy;
+
+import model.Floor;
+import model.SpotType;
+
+/**
+ * Decides which free bay a vehicle is given. The free-spot index asks for each bay's rank
+ * once, when the lot is indexed, and keeps every SpotType's free bays in a heap by rank,
+ * so handing out a bay stays O(log n) whatever the policy.
+ */
+public interface AllocationStrategy {
+
+    // lower ranks are handed out first; ordinal is the bay's position in the whole lot, floor order
+    int rank(Floor floor, int floorPosition, int indexInFloor, int ordinal);
+
+    /**
+     * The vehicle's compatible types (in enum order), grouped best group first. A later group
+     * is only used once every bay of the earlier groups is taken; within a group the
+     * lowest-ranked free bay wins, whatever its type.
+     *
+     * By default ordinary bays come first, then reserved and handicapped ones: any vehicle may
+     * use those, but only once nothing else it fits is free, so they stay open for the
+     * vehicles they are meant for.
+     */
+    default SpotType[][] typeGroups(SpotType[] compatible) {
+        int ordinary = 0;
+        for (SpotType c : compatible) {
+            if (c != SpotType.RESERVED && c != SpotType.HANDICAPPED) ordinary++;
+        }
+        if (ordinary == 0 || ordinary == compatible.length) return new SpotType[][]{compatible};
+        SpotType[] first = new SpotType[ordinary];
+        SpotType[] last = new SpotType[compatible.length - ordinary];
+        int f = 0, l = 0;
+        for (SpotType c : compatible) {
+            if (c != SpotType.RESERVED && c != SpotType.HANDICAPPED) first[f++] = c;
+            else last[l++] = c;
+        }
+        return new SpotType[][]{first, last};
+    }
+}
@@ -0,0 +1,20 @@
+package strategy;
+
+import model.Floor;
+
+/**
+ * Spreads vehicles over every floor instead of filling floor 1 first. Bays are ranked by how
+ * far into their floor they are, as a fraction of the floor, so each floor hands out its
+ * first tenth before any floor hands out its second, and floors of any size fill at the same rate.
+ * Bays at the same depth go lowest floor first: the index breaks rank ties by ordinal, so the
+ * rank needs no floor term and can't wrap however many floors the lot has.
+ */
+public class BalancedFloorsAllocation implements AllocationStrategy {
+
+    private static final int STEPS = 100_000; // resolution of "how far into the floor"
+
+    @Override
+    public int rank(Floor floor, int floorPosition, int indexInFloor, int ordinal) {
+        return (int) ((long) indexInFloor * STEPS / Math.max(1, floor.getTotalCount()));
+    }
+}
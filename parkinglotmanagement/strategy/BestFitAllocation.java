@@ -0,0 +1,35 @@
+package strategy;
+
+import model.Floor;
+import model.SpotType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The smallest bay type the vehicle fits, floor order within it: a car takes a compact bay
+ * before a regular one, so regular bays stay open for SUVs. Reserved and handicapped bays
+ * come last, only when every ordinary bay the vehicle fits is taken.
+ */
+public class BestFitAllocation implements AllocationStrategy {
+
+    private static final SpotType[] SMALLEST_FIRST = {
+            SpotType.COMPACT, SpotType.REGULAR, SpotType.RESERVED, SpotType.HANDICAPPED
+    };
+
+    @Override
+    public int rank(Floor floor, int floorPosition, int indexInFloor, int ordinal) {
+        return ordinal;
+    }
+
+    @Override
+    public SpotType[][] typeGroups(SpotType[] compatible) {
+        List<SpotType[]> groups = new ArrayList<>();
+        for (SpotType type : SMALLEST_FIRST) {
+            for (SpotType c : compatible) {
+                if (c == type) groups.add(new SpotType[]{type});
+            }
+        }
+        return groups.toArray(new SpotType[0][]);
+    }
+}
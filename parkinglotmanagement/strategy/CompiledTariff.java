@@ -0,0 +1,110 @@
+package strategy;
+
+import model.SpotType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Tariff turned into lookup tables, so pricing an exit is a few array reads:
+ * no loops over the stay, no allocation and no call into the FineStrategy for any stay
+ * up to FINE_TABLE_HOURS.
+ *
+ * Fees only depend on the SpotType, the hour of the week the stay starts in and the billed
+ * hours. A stay is split into whole weeks, whole 24-hour days and a tail of under 24 hours;
+ * per type and starting hour the tables hold the capped cost of 0..7 consecutive days, and a
+ * running sum of hourly rates over a week gives the tail.
+ *
+ * Immutable; swap in a new one to change prices.
+ */
+public class CompiledTariff {
+
+    /** Fines are tabled up to a month of stay; longer stays ask the FineStrategy. */
+    public static final int FINE_TABLE_HOURS = 31 * 24;
+
+    private static final int WEEK = 7 * 24;
+    private static final SpotType[] TYPES = SpotType.values();
+
+    // [type][hour of week 0..191]: sum of hourly rates before that hour, running on past Sunday into the next Monday
+    private final double[] rateSums = new double[TYPES.length * (WEEK + 24)];
+    // [type][start hour of week][days 0..7]: cost of that many whole days, each capped
+    private final double[] daySums = new double[TYPES.length * WEEK * 8];
+    private final double[] dailyCap;
+    private final double[] fineByHours;
+    private final FineStrategy fines;
+
+    CompiledTariff(Tariff t) {
+        this.dailyCap = t.dailyCap.clone();
+        buildFeeTables(t);
+        this.fines = t.fines;
+        this.fineByHours = fineTable(fines);
+    }
+
+    // same fee tables as sameFees, different fines
+    private CompiledTariff(CompiledTariff sameFees, FineStrategy fines) {
+        this.dailyCap = sameFees.dailyCap;
+        System.arraycopy(sameFees.rateSums, 0, rateSums, 0, rateSums.length);
+        System.arraycopy(sameFees.daySums, 0, daySums, 0, daySums.length);
+        this.fines = fines;
+        this.fineByHours = fineTable(fines);
+    }
+
+    private static double[] fineTable(FineStrategy fines) {
+        double[] table = new double[FINE_TABLE_HOURS + 1];
+        for (int h = 0; h <= FINE_TABLE_HOURS; h++) table[h] = fines.calculateFine(h);
+        return table;
+    }
+
+    private void buildFeeTables(Tariff t) {
+        for (SpotType type : TYPES) {
+            int ty = type.ordinal();
+            int base = ty * (WEEK + 24);
+            for (int h = 0; h < WEEK + 23; h++) {
+                rateSums[base + h + 1] = rateSums[base + h] + t.rateAt(type, h % WEEK);
+            }
+            for (int start = 0; start < WEEK; start++) {
+                int at = (ty * WEEK + start) * 8;
+                for (int d = 0; d < 7; d++) {
+                    int dayStart = (start + 24 * d) % WEEK;
+                    daySums[at + d + 1] = daySums[at + d] + tail(ty, dayStart, 24);
+                }
+            }
+        }
+    }
+
+    // hours < 24 billed from hourOfWeek on, capped
+    private double tail(int type, int hourOfWeek, int hours) {
+        int base = type * (WEEK + 24) + hourOfWeek;
+        return Math.min(dailyCap[type], rateSums[base + hours] - rateSums[base]);
+    }
+
+    /** Parking fee for billedHours starting at entry (only its day of week and hour count). */
+    public double fee(SpotType type, LocalDateTime entry, long billedHours) {
+        return fee(type, hourOfWeek(entry), billedHours);
+    }
+
+    public double fee(SpotType type, int hourOfWeek, long billedHours) {
+        int ty = type.ordinal();
+        long days = billedHours / 24;
+        int tailHours = (int) (billedHours % 24);
+        int at = (ty * WEEK + hourOfWeek) * 8;
+        int tailStart = (int) ((hourOfWeek + 24 * (days % 7)) % WEEK);
+        return (days / 7) * daySums[at + 7] + daySums[at + (int) (days % 7)] + tail(ty, tailStart, tailHours);
+    }
+
+    public double fine(long billedHours) {
+        return billedHours <= FINE_TABLE_HOURS ? fineByHours[(int) billedHours] : fines.calculateFine(billedHours);
+    }
+
+    /** Same fees, different fines; only the fine table is rebuilt. */
+    public CompiledTariff withFines(FineStrategy fines) {
+        return new CompiledTariff(this, fines);
+    }
+
+    public FineStrategy getFineStrategy() {
+        return fines;
+    }
+
+    public static int hourOfWeek(LocalDateTime t) {
+        return (t.getDayOfWeek().getValue() - 1) * 24 + t.getHour();
+    }
+}
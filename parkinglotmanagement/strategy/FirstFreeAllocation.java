@@ -0,0 +1,12 @@
+package strategy;
+
+import model.Floor;
+
+/** The lowest free bay in floor order that the vehicle fits, ordinary bays before special ones. The default. */
+public class FirstFreeAllocation implements AllocationStrategy {
+
+    @Override
+    public int rank(Floor floor, int floorPosition, int indexInFloor, int ordinal) {
+        return ordinal;
+    }
+}
@@ -0,0 +1,6 @@
+package strategy;
+
+public interface IdStrategy {
+    // prefix is the human-readable kind marker, e.g. "T-" for tickets or "P-" for payments
+    String nextId(String prefix);
+}
@@ -0,0 +1,26 @@
+package strategy;
+
+import model.Floor;
+
+/**
+ * The free bay the shortest walk from the exit. Each floor's first bay is by the ramp, with
+ * the exit at the bottom, and going up a floor costs as much walking as passing rampCost
+ * bays. A bay deep into floor 1 can rank behind the first bays of floor 2.
+ */
+public class NearestExitAllocation implements AllocationStrategy {
+
+    private final int rampCost;
+
+    public NearestExitAllocation() {
+        this(50);
+    }
+
+    public NearestExitAllocation(int rampCost) {
+        this.rampCost = rampCost;
+    }
+
+    @Override
+    public int rank(Floor floor, int floorPosition, int indexInFloor, int ordinal) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) floorPosition * rampCost + indexInFloor);
+    }
+}
@@ -0,0 +1,48 @@
+package strategy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style IDs: 41 bits of milliseconds since 2024-01-01, 10 bits of node ID
+ * and a 12-bit counter per millisecond, printed in base 36.
+ *
+ * IDs are unique across up to 1024 gate nodes as long as each node has its own nodeId,
+ * and they never repeat on one node: when a millisecond's 4096 IDs are used up, or the
+ * clock steps backwards, the counter simply carries on from the last timestamp handed out.
+ */
+public class SnowflakeIdStrategy implements IdStrategy {
+
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long nodeId;
+    // (timestamp << SEQUENCE_BITS) | sequence of the last ID handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdStrategy(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be 0.." + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public long nextLong() {
+        while (true) {
+            long prev = last.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long next = now > (prev >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : prev + 1;
+            if (last.compareAndSet(prev, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    @Override
+    public String nextId(String prefix) {
+        return prefix + Long.toString(nextLong(), 36).toUpperCase();
+    }
+}
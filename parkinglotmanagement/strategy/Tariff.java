@@ -0,0 +1,102 @@
+package strategy;
+
+import model.SpotType;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+
+/**
+ * Declarative tariff: per SpotType a day, night and weekend hourly rate and an optional cap
+ * per 24 hours of stay, plus the FineStrategy for overstays. Describe it once, then compile()
+ * it into the lookup tables the exit path uses.
+ *
+ * Each billed hour is charged at the rate in force when that hour starts: the weekend rate
+ * on weekend days, otherwise the night rate during night hours, otherwise the day rate.
+ * The cap limits what any 24 hours counted from entry can cost.
+ *
+ * Tariff.flat() is what the lot has always charged: SpotType's hourly rate around the clock,
+ * no caps, fixed fines.
+ */
+public class Tariff {
+
+    private static final SpotType[] TYPES = SpotType.values();
+
+    final double[] dayRate = new double[TYPES.length];
+    final double[] nightRate = new double[TYPES.length];
+    final double[] weekendRate = new double[TYPES.length];
+    final double[] dailyCap = new double[TYPES.length];
+    int nightFrom = 0, nightTo = 0; // [from, to) in hours of the day, may wrap midnight; equal = no night
+    final boolean[] weekend = new boolean[7];  // by DayOfWeek ordinal
+    FineStrategy fines = new FixedFineStrategy();
+
+    public static Tariff flat() {
+        Tariff t = new Tariff();
+        for (SpotType type : TYPES) t.rate(type, type.getHourlyRate());
+        return t;
+    }
+
+    private Tariff() {
+        Arrays.fill(dailyCap, Double.POSITIVE_INFINITY);
+    }
+
+    /** Same hourly rate day, night and weekend. */
+    public Tariff rate(SpotType type, double perHour) {
+        return rate(type, perHour, perHour, perHour);
+    }
+
+    public Tariff rate(SpotType type, double day, double night, double weekend) {
+        dayRate[type.ordinal()] = day;
+        nightRate[type.ordinal()] = night;
+        weekendRate[type.ordinal()] = weekend;
+        return this;
+    }
+
+    /** Night runs from fromHour up to toHour, e.g. 22 to 7. */
+    public Tariff nightHours(int fromHour, int toHour) {
+        if (fromHour < 0 || fromHour > 23 || toHour < 0 || toHour > 23) {
+            throw new IllegalArgumentException("Night hours must be 0..23: " + fromHour + "-" + toHour);
+        }
+        nightFrom = fromHour;
+        nightTo = toHour;
+        return this;
+    }
+
+    public Tariff weekendDays(DayOfWeek... days) {
+        Arrays.fill(weekend, false);
+        for (DayOfWeek d : days) weekend[d.ordinal()] = true;
+        return this;
+    }
+
+    /** Most any 24 hours of stay can cost for this type. */
+    public Tariff dailyCap(SpotType type, double cap) {
+        dailyCap[type.ordinal()] = cap;
+        return this;
+    }
+
+    public double getDailyCap(SpotType type) {
+        return dailyCap[type.ordinal()];
+    }
+
+    public Tariff fines(FineStrategy fines) {
+        this.fines = fines;
+        return this;
+    }
+
+    public FineStrategy getFineStrategy() {
+        return fines;
+    }
+
+    /** Rate for the hour starting at hourOfWeek (0 = Monday 00:00 .. 167 = Sunday 23:00). */
+    public double rateAt(SpotType type, int hourOfWeek) {
+        int day = hourOfWeek / 24, hour = hourOfWeek % 24;
+        if (weekend[day]) return weekendRate[type.ordinal()];
+        boolean night = nightFrom <= nightTo
+                ? hour >= nightFrom && hour < nightTo
+                : hour >= nightFrom || hour < nightTo;
+        return night ? nightRate[type.ordinal()] : dayRate[type.ordinal()];
+    }
+
+    public CompiledTariff compile() {
+        return new CompiledTariff(this);
+    }
+}
@@ -0,0 +1,13 @@
+package strategy;
+
+import java.util.UUID;
+
+public class UuidIdStrategy implements IdStrategy {
+
+    @Override
+    public String nextId(String prefix) {
+        // Original scheme: 8 hex chars of a random UUID. Goes through SecureRandom
+        // and can collide after a few million IDs, kept only for compatibility.
+        return prefix + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
@@ -0,0 +1,151 @@
+package persistence;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.ParkingService;
+import service.PaymentService;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParkingJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private ParkingService parking;
+    private PaymentService payments;
+
+    private ParkingJournal open() throws IOException {
+        parking = new ParkingService();
+        payments = new PaymentService();
+        payments.setFineLedger(parking.getFineLedger());
+        return ParkingJournal.open(dir, parking, payments, 1);
+    }
+
+    // plate -> ticketId@spotId, enough to tell two lots apart
+    private Map<String, String> tickets() {
+        Map<String, String> out = new TreeMap<>();
+        for (Ticket t : parking.getActiveTickets()) {
+            out.put(t.getVehicle().getPlateNumber(), t.getTicketId() + "@" + t.getSpot().getSpotId());
+        }
+        return out;
+    }
+
+    @Test
+    void reopeningRestoresTicketsFinesAndPayments() throws IOException {
+        Map<String, String> before;
+        double revenue;
+        int fines;
+        try (ParkingJournal journal = open()) {
+            parking.parkVehicle(new Car("A"));
+            parking.parkVehicle(new SUV("B"));
+            parking.parkVehicle(new Car("LONG", LocalDateTime.now().minusHours(30)));
+            ParkingService.ExitResult exit = parking.exitVehicle("LONG");
+            payments.recordPayment("LONG", exit.parkingFee, exit.fine);
+            parking.exitVehicle("A");
+            before = tickets();
+            revenue = payments.getTotalRevenue();
+            fines = parking.getFines().size();
+        }
+
+        try (ParkingJournal journal = open()) {
+            assertEquals(before, tickets());
+            assertEquals(revenue, payments.getTotalRevenue());
+            assertEquals(fines, parking.getFines().size());
+            assertEquals(1, payments.getPayments().size());
+            assertTrue(parking.getSpot("F1-C1").isAvailable(), "A's bay still taken after replaying its exit");
+        }
+    }
+
+    @Test
+    void checkpointKeepsStateAndDropsOldJournals() throws IOException {
+        Map<String, String> before;
+        try (ParkingJournal journal = open()) {
+            parking.parkVehicle(new Car("A"));
+            parking.parkVehicle(new Car("B"));
+            payments.recordPayment("X", 3.0, null);
+            journal.checkpoint();
+            parking.exitVehicle("A");
+            parking.parkVehicle(new SUV("C"));
+            journal.checkpoint();
+            before = tickets();
+        }
+        assertFalse(Files.exists(dir.resolve("journal-0.log")));
+        assertFalse(Files.exists(dir.resolve("journal-1.log")));
+
+        try (ParkingJournal journal = open()) {
+            assertEquals(before, tickets());
+            assertEquals(3.0, payments.getTotalRevenue());
+        }
+    }
+
+    @Test
+    void tornRecordAtTheTailEndsReplayThere() throws IOException {
+        try (ParkingJournal journal = open()) {
+            parking.parkVehicle(new Car("A"));
+            parking.parkVehicle(new Car("B"));
+        }
+        Path log = dir.resolve("journal-0.log");
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 3); // crash halfway through B's record
+        }
+
+        try (ParkingJournal journal = open()) {
+            assertEquals(Set.of("A"), tickets().keySet());
+            parking.parkVehicle(new Car("B")); // and the lot carries on
+        }
+        try (ParkingJournal journal = open()) {
+            assertEquals(Set.of("A", "B"), tickets().keySet());
+        }
+    }
+
+    @Test
+    void oversizedPlateIsRefusedBeforeItReachesTheJournal() throws IOException {
+        try (ParkingJournal journal = open()) {
+            parking.parkVehicle(new Car("A"));
+            assertThrows(IllegalArgumentException.class, () -> parking.parkVehicle(new Car("X".repeat(40_000))));
+            assertThrows(IllegalArgumentException.class, () -> payments.recordPayment("X".repeat(40_000), 1.0, null));
+            assertEquals(1, parking.getActiveTicketCount());
+        }
+        try (ParkingJournal journal = open()) {
+            assertEquals(Set.of("A"), tickets().keySet());
+        }
+    }
+
+    @Test
+    void concurrentParksAndExitsReplayToTheSameLot() throws Exception {
+        Map<String, String> before;
+        try (ParkingJournal journal = open()) {
+            ExecutorService gates = Executors.newFixedThreadPool(4);
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long seed = t;
+                done.add(gates.submit(() -> {
+                    Random rnd = new Random(seed);
+                    for (int i = 0; i < 3_000; i++) {
+                        String plate = "P" + rnd.nextInt(12);
+                        if (rnd.nextBoolean()) parking.tryParkVehicle(new Car(plate));
+                        else parking.tryExitVehicle(plate);
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get(60, TimeUnit.SECONDS);
+            gates.shutdown();
+            before = tickets();
+        }
+
+        try (ParkingJournal journal = open()) {
+            assertEquals(before, tickets());
+        }
+    }
+}
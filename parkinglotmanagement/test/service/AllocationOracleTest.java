@@ -0,0 +1,84 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+import strategy.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Randomised parks and exits under every strategy, each claim checked against a brute-force
+ * walk of the whole lot: the index must hand out exactly the bay the strategy ranks first.
+ */
+class AllocationOracleTest {
+
+    private static final AllocationStrategy[] STRATEGIES = {
+            new FirstFreeAllocation(), new BestFitAllocation(), new NearestExitAllocation(40), new BalancedFloorsAllocation()
+    };
+
+    @Test
+    void everyClaimMatchesTheBruteForceChoice() {
+        Random rnd = new Random(1);
+        ParkingService parking = new ParkingService(ConcurrentParkExitTest.floors(7, 300));
+        List<String> parked = new ArrayList<>();
+        int claims = 0;
+        for (int step = 0; step < 200_000; step++) {
+            if (step % 20_000 == 0) parking.setAllocationStrategy(STRATEGIES[(step / 20_000) % STRATEGIES.length]);
+            if (parked.isEmpty() || rnd.nextInt(100) < 55) {
+                Vehicle v = ConcurrentParkExitTest.vehicle(rnd.nextInt(4), "P" + step);
+                ParkingSpot expected = bruteForce(parking, v);
+                ParkingService.ParkAttempt attempt = parking.tryParkVehicle(v);
+                ParkingSpot got = attempt.isSuccess() ? attempt.ticket.getSpot() : null;
+                assertSame(expected, got, () -> parking.getAllocationStrategy().getClass().getSimpleName() + " for " + v.getClass().getSimpleName());
+                if (got != null) {
+                    assertFalse(special(got.getType()) && ordinaryFree(parking, v), "special bay given while an ordinary one was free");
+                    parked.add(v.getPlateNumber());
+                }
+                claims++;
+            } else {
+                parking.exitVehicle(parked.remove(rnd.nextInt(parked.size())));
+            }
+        }
+        assertTrue(claims > 100_000);
+    }
+
+    private static boolean special(SpotType type) {
+        return type == SpotType.RESERVED || type == SpotType.HANDICAPPED;
+    }
+
+    private static boolean ordinaryFree(ParkingService parking, Vehicle v) {
+        for (ParkingSpot spot : parking.getAllSpots()) {
+            if (spot.isAvailable() && !special(spot.getType()) && v.canParkIn(spot.getType())) return true;
+        }
+        return false;
+    }
+
+    // first group with a free bay, lowest (rank, ordinal) within it
+    private static ParkingSpot bruteForce(ParkingService parking, Vehicle v) {
+        AllocationStrategy strategy = parking.getAllocationStrategy();
+        SpotType[] compatible = Arrays.stream(SpotType.values()).filter(v::canParkIn).toArray(SpotType[]::new);
+        List<Floor> floors = parking.getFloors();
+        for (SpotType[] group : strategy.typeGroups(compatible)) {
+            List<SpotType> types = Arrays.asList(group);
+            ParkingSpot best = null;
+            long bestKey = Long.MAX_VALUE;
+            int ordinal = 0;
+            for (int f = 0; f < floors.size(); f++) {
+                Floor floor = floors.get(f);
+                for (int i = 0; i < floor.getTotalCount(); i++, ordinal++) {
+                    ParkingSpot spot = floor.getSpot(i);
+                    if (!spot.isAvailable() || !types.contains(spot.getType())) continue;
+                    long key = ((long) strategy.rank(floor, f, i, ordinal) << 32) | ordinal;
+                    if (key < bestKey) {
+                        bestKey = key;
+                        best = spot;
+                    }
+                }
+            }
+            if (best != null) return best;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,116 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllocationTest {
+
+    // default lot: F1-C1 F1-R1 F1-H1 F1-V1 | F2-C1 F2-R1 F2-R2 F2-V1
+    private final ParkingService parking = new ParkingService();
+
+    private String park(Vehicle v) {
+        return parking.parkVehicle(v).getSpot().getSpotId();
+    }
+
+    @Test
+    void handsOutTheLowestFreeBayInFloorOrder() {
+        assertEquals("F1-C1", park(new Car("A")));
+        assertEquals("F1-R1", park(new Car("B")));
+        assertEquals("F2-C1", park(new Car("C")));
+        assertEquals("F2-R1", park(new Car("D")));
+    }
+
+    @Test
+    void specialBaysGoLast() {
+        // an SUV fits REGULAR and RESERVED: all three regular bays go before the reserved ones
+        assertEquals("F1-R1", park(new SUV("S1")));
+        assertEquals("F2-R1", park(new SUV("S2")));
+        assertEquals("F2-R2", park(new SUV("S3")));
+        assertEquals("F1-V1", park(new SUV("S4")));
+        // a motorcycle fits anything: both compact bays before the handicapped and reserved ones
+        for (String bay : List.of("F1-C1", "F2-C1", "F1-H1", "F2-V1")) assertEquals(bay, park(new Motorcycle("M-" + bay)));
+    }
+
+    @Test
+    void balancedFloorsKeepsFloorOrderOnVeryTallLots() {
+        List<Floor> floors = new ArrayList<>();
+        for (int f = 1; f <= 20_002; f++) {
+            Floor floor = new Floor(f);
+            floor.addSpot(new ParkingSpot("F" + f + "-A", SpotType.REGULAR));
+            floor.addSpot(new ParkingSpot("F" + f + "-B", SpotType.REGULAR));
+            floors.add(floor);
+        }
+        ParkingService tall = new ParkingService(floors);
+        tall.setAllocationStrategy(new strategy.BalancedFloorsAllocation());
+        // every floor's first bay, bottom up, before any floor's second
+        for (int f = 1; f <= 20_002; f++) assertEquals("F" + f + "-A", tall.parkVehicle(new Car("C" + f)).getSpot().getSpotId());
+        assertEquals("F1-B", tall.parkVehicle(new Car("NEXT")).getSpot().getSpotId());
+    }
+
+    @Test
+    void vehiclesOnlyGetBaysTheyFit() {
+        assertEquals("F1-H1", park(new HandicappedVehicle("H")));
+        assertEquals(ParkingService.Status.LOT_FULL, parking.tryParkVehicle(new HandicappedVehicle("H2")).status);
+
+        List<String> suvBays = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ParkingService.ParkAttempt attempt = parking.tryParkVehicle(new SUV("S" + i));
+            if (attempt.isSuccess()) suvBays.add(attempt.ticket.getSpot().getType().name());
+        }
+        assertEquals(5, suvBays.size()); // three regular bays and two reserved
+        assertFalse(suvBays.contains("COMPACT"));
+        assertFalse(suvBays.contains("HANDICAPPED"));
+    }
+
+    @Test
+    void fullLotRefusesUntilAnExitFreesABay() {
+        for (int i = 0; i < 5; i++) park(new Car("C" + i));
+        assertEquals(ParkingService.Status.LOT_FULL, parking.tryParkVehicle(new Car("LATE")).status);
+        assertEquals(0, parking.getFreeCount(new Car("LATE")));
+
+        parking.exitVehicle("C1");
+        assertEquals(1, parking.getFreeCount(new Car("LATE")));
+        assertEquals("F1-R1", park(new Car("LATE")));
+    }
+
+    @Test
+    void samePlateCannotParkTwice() {
+        park(new Car("TWICE"));
+        assertEquals(ParkingService.Status.ALREADY_PARKED, parking.tryParkVehicle(new SUV("TWICE")).status);
+        assertEquals(1, parking.getActiveTicketCount());
+    }
+
+    @Test
+    void batchReportsAStatusPerVehicle() {
+        park(new HandicappedVehicle("H0"));
+        List<ParkingService.ParkOutcome> parked = parking.parkVehicles(
+                List.of(new Car("A"), new Car("A"), new HandicappedVehicle("H1")));
+        assertEquals(ParkingService.Status.OK, parked.get(0).status);
+        assertEquals(ParkingService.Status.ALREADY_PARKED, parked.get(1).status);
+        assertEquals(ParkingService.Status.LOT_FULL, parked.get(2).status);
+
+        List<ParkingService.ExitOutcome> exited = parking.exitVehicles(List.of("A", "NOBODY"));
+        assertTrue(exited.get(0).isSuccess());
+        assertEquals(ParkingService.Status.NO_ACTIVE_TICKET, exited.get(1).status);
+    }
+
+    @Test
+    void heldBayIsKeptForItsBooking() {
+        LocalDateTime now = LocalDateTime.now();
+        String booked = parking.getReservations().book("F1-V1", "BOOKED", now.plusMinutes(10), now.plusHours(2)).getSpot().getSpotId();
+
+        List<String> walkIns = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ParkingService.ParkAttempt attempt = parking.tryParkVehicle(new SUV("W" + i));
+            if (attempt.isSuccess()) walkIns.add(attempt.ticket.getSpot().getSpotId());
+        }
+        assertFalse(walkIns.contains(booked));
+        assertEquals(booked, park(new SUV("BOOKED")));
+    }
+}
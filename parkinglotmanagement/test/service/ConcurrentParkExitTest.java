@@ -0,0 +1,105 @@
+package service;
+
+import model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentParkExitTest {
+
+    static List<Floor> floors(int count, int perFloor) {
+        SpotType[] types = SpotType.values();
+        List<Floor> floors = new ArrayList<>();
+        for (int f = 1; f <= count; f++) {
+            Floor floor = new Floor(f);
+            for (int i = 0; i < perFloor; i++) floor.addSpot(new ParkingSpot("F" + f + "-" + i, types[i % types.length]));
+            floors.add(floor);
+        }
+        return floors;
+    }
+
+    static Vehicle vehicle(int kind, String plate) {
+        switch (kind % 4) {
+            case 0: return new Car(plate);
+            case 1: return new SUV(plate);
+            case 2: return new Motorcycle(plate);
+            default: return new HandicappedVehicle(plate);
+        }
+    }
+
+    /** Every gate thread parks and exits from a shared pool of plates, so plates and bays are fought over. */
+    static void runGates(ParkingService parking, int threads, int opsPerThread, int plates) throws Exception {
+        ExecutorService gates = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            done.add(gates.submit(() -> {
+                Random rnd = new Random(seed);
+                start.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    int p = rnd.nextInt(plates);
+                    if (rnd.nextBoolean()) parking.tryParkVehicle(vehicle(p, "P" + p));
+                    else parking.tryExitVehicle("P" + p);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : done) f.get(60, TimeUnit.SECONDS);
+        gates.shutdown();
+    }
+
+    @Test
+    void ticketsSpotsAndCountersAgreeAfterConcurrentGates() throws Exception {
+        ParkingService parking = new ParkingService(floors(4, 40));
+        runGates(parking, 8, 5_000, 300);
+
+        Set<ParkingSpot> ticketed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Ticket t : parking.getActiveTickets()) {
+            assertTrue(ticketed.add(t.getSpot()), "two tickets for " + t.getSpot().getSpotId());
+            assertSame(t.getVehicle(), t.getSpot().getCurrentVehicle());
+            assertTrue(t.getVehicle().canParkIn(t.getSpot().getType()));
+        }
+        int occupied = 0;
+        for (Floor floor : parking.getFloors()) {
+            int onFloor = 0;
+            for (ParkingSpot spot : floor.getSpots()) {
+                if (!spot.isAvailable()) {
+                    onFloor++;
+                    assertTrue(ticketed.contains(spot), "occupied without a ticket: " + spot.getSpotId());
+                }
+            }
+            assertEquals(onFloor, floor.getOccupiedCount());
+            occupied += onFloor;
+        }
+        assertEquals(parking.getActiveTicketCount(), occupied);
+        assertEquals(parking.getActiveTicketCount(), parking.getActiveTicketsByPlate().size());
+    }
+
+    @Test
+    void racingExitsCloseEachTicketOnce() throws Exception {
+        ParkingService parking = new ParkingService(floors(2, 40));
+        for (int i = 0; i < 40; i++) parking.parkVehicle(new Car("C" + i));
+
+        ExecutorService gates = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> exits = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            exits.add(gates.submit(() -> {
+                int ok = 0;
+                for (int i = 0; i < 40; i++) if (parking.tryExitVehicle("C" + i).isSuccess()) ok++;
+                return ok;
+            }));
+        }
+        int closed = 0;
+        for (Future<Integer> f : exits) closed += f.get(60, TimeUnit.SECONDS);
+        gates.shutdown();
+
+        assertEquals(40, closed);
+        assertEquals(0, parking.getActiveTicketCount());
+        for (Floor floor : parking.getFloors()) assertEquals(0, floor.getOccupiedCount());
+    }
+}